@@ -6,10 +6,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.booking.dto.BookingDecision;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.State;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -25,30 +27,49 @@ public class BookingClient extends BaseClient {
         );
     }
 
-    public ResponseEntity<Object> getBookingsByState(Long userId, State state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> getBookingsByState(Long userId, State state, Integer from, Integer size, String cursor) {
+        return getFeed("", userId, state, from, size, cursor);
+    }
+
+    public ResponseEntity<Object> getBookingsByOwner(Long userId, State state, Integer from, Integer size, String cursor) {
+        return getFeed("/owner", userId, state, from, size, cursor);
     }
 
-    public ResponseEntity<Object> getBookingsByOwner(Long userId, State state, Integer from, Integer size) {
+    private ResponseEntity<Object> getFeed(String path, Long userId, State state, Integer from, Integer size, String cursor) {
+        if (cursor != null) {
+            Map<String, Object> parameters = Map.of(
+                    "state", state.name(),
+                    "cursor", cursor,
+                    "size", size
+            );
+            return get(path + "?state={state}&cursor={cursor}&size={size}", userId, parameters);
+        }
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
                 "size", size
         );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+        return get(path + "?state={state}&from={from}&size={size}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getSummary(Long userId) {
+        return get("/summary", userId);
+    }
+
+    public ResponseEntity<Object> getOwnerSummary(Long userId) {
+        return get("/owner/summary", userId);
     }
 
     public ResponseEntity<Object> getBooking(Long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> createBooking(Long userId, BookingDto requestDto) {
-        return post("", userId, requestDto);
+    public ResponseEntity<Object> createBooking(Long userId, BookingDto requestDto, String idempotencyKey) {
+        return post("", userId, requestDto, idempotencyKey(idempotencyKey));
+    }
+
+    public ResponseEntity<Object> createBookings(Long userId, List<BookingDto> requestDtos) {
+        return post("/batch", userId, requestDtos);
     }
 
     public ResponseEntity<Object> updateBookingState(Long userId, Long bookingId, Boolean approved) {
@@ -56,6 +77,10 @@ public class BookingClient extends BaseClient {
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
 
+    public ResponseEntity<Object> decideBookings(Long userId, List<BookingDecision> decisions) {
+        return patch("/owner/decisions", userId, decisions);
+    }
+
     public void deleteBooking(Long bookingId) {
         delete("/" + bookingId);
     }
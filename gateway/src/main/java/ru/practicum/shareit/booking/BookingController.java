@@ -2,11 +2,17 @@ package ru.practicum.shareit.booking;
 
 import lombok.AllArgsConstructor;
 
+import java.util.List;
+
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import ru.practicum.shareit.booking.dto.BookingDecision;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.State;
+import ru.practicum.shareit.exception.InvalidBatchException;
 import ru.practicum.shareit.exception.InvalidStateException;
 import ru.practicum.shareit.exception.PageSizeException;
 
@@ -14,27 +20,47 @@ import ru.practicum.shareit.exception.PageSizeException;
 @AllArgsConstructor
 @RequestMapping("/bookings")
 public class BookingController {
+	private static final int MAX_BATCH_SIZE = 100;
 	private final String header = "X-Sharer-User-Id";
+	private final String idempotencyHeader = "Idempotency-Key";
 	private final BookingClient bookingClient;
+	private final BookingStreamClient bookingStreamClient;
 
 	@GetMapping
 	public ResponseEntity<Object> getBookingsByState(@RequestHeader(header) Long userId,
 						@RequestParam(name = "state", defaultValue = "ALL") String state,
 						@RequestParam(value = "from", defaultValue = "0") Integer from,
-						@RequestParam(value = "size", defaultValue = "20") Integer size) {
+						@RequestParam(value = "size", defaultValue = "20") Integer size,
+						@RequestParam(value = "cursor", required = false) String cursor) {
 		checkParams(from, size);
 		checkState(state);
-		return bookingClient.getBookingsByState(userId, State.valueOf(state), from, size);
+		return bookingClient.getBookingsByState(userId, State.valueOf(state), from, size, cursor);
 	}
 
 	@GetMapping("/owner")
 	public ResponseEntity<Object> getBookingsByOwner(@RequestHeader(header) Long userId,
 						@RequestParam(name = "state", defaultValue = "ALL") String state,
 						@RequestParam(value = "from", defaultValue = "0") Integer from,
-						@RequestParam(value = "size", defaultValue = "20") Integer size) {
+						@RequestParam(value = "size", defaultValue = "20") Integer size,
+						@RequestParam(value = "cursor", required = false) String cursor) {
 		checkParams(from, size);
 		checkState(state);
-		return bookingClient.getBookingsByOwner(userId, State.valueOf(state), from, size);
+		return bookingClient.getBookingsByOwner(userId, State.valueOf(state), from, size, cursor);
+	}
+
+	@GetMapping("/summary")
+	public ResponseEntity<Object> getSummary(@RequestHeader(header) Long userId) {
+		return bookingClient.getSummary(userId);
+	}
+
+	@GetMapping("/owner/summary")
+	public ResponseEntity<Object> getOwnerSummary(@RequestHeader(header) Long userId) {
+		return bookingClient.getOwnerSummary(userId);
+	}
+
+	@GetMapping(value = "/owner/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public ResponseEntity<ResponseBodyEmitter> streamBookingsByOwner(@RequestHeader(header) Long userId) {
+		return bookingStreamClient.streamOwnerBookings(userId);
 	}
 
 	@GetMapping("/{bookingId}")
@@ -45,10 +71,29 @@ public class BookingController {
 
 	@PostMapping
 	public ResponseEntity<Object> createBooking(@RequestHeader(header) Long userId,
+												@RequestHeader(value = idempotencyHeader, required = false) String idempotencyKey,
 										 		@RequestBody BookingDto bookingRequestDto) {
-		return bookingClient.createBooking(userId, bookingRequestDto);
+		return bookingClient.createBooking(userId, bookingRequestDto, idempotencyKey);
 	}
 
+	@PostMapping("/batch")
+	public ResponseEntity<Object> createBookings(@RequestHeader(header) Long userId,
+												 @RequestBody List<BookingDto> bookingRequestDtos) {
+		checkBatch(bookingRequestDtos);
+		return bookingClient.createBookings(userId, bookingRequestDtos);
+	}
+
+	@PatchMapping("/owner/decisions")
+	public ResponseEntity<Object> decideBookings(@RequestHeader(header) Long userId,
+												 @RequestBody List<BookingDecision> decisions) {
+		checkBatch(decisions);
+		for (BookingDecision decision : decisions) {
+			if (decision.getBookingId() == null || decision.getApproved() == null) {
+				throw new InvalidBatchException("Each decision needs bookingId and approved!");
+			}
+		}
+		return bookingClient.decideBookings(userId, decisions);
+	}
 
 	@PatchMapping("/{bookingId}")
 	public ResponseEntity<Object> updateBookingState(@RequestHeader(header) Long userId,
@@ -68,6 +113,12 @@ public class BookingController {
         }
     }
 
+    private void checkBatch(List<?> batch) {
+        if (batch.isEmpty() || batch.size() > MAX_BATCH_SIZE) {
+            throw new InvalidBatchException("Batch must contain from 1 to " + MAX_BATCH_SIZE + " entries!");
+        }
+    }
+
     private void checkState(String state) {
         if (!State.ALL.toString().equals(state) &&
             !State.PAST.toString().equals(state) &&
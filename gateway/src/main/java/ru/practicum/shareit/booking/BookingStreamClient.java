@@ -0,0 +1,127 @@
+package ru.practicum.shareit.booking;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+/**
+ * Relays the server's owner event stream. Each open stream holds one upstream connection and one copy thread for
+ * its whole lifetime, so both come from pools of their own instead of the shared BookingClient pool and the MVC
+ * async executor. Once the pools are full, new streams get a 503 instead of waiting.
+ */
+@Service
+public class BookingStreamClient {
+    private static final String API_PREFIX = "/bookings";
+
+    private final String serverUrl;
+    private final long timeoutMs;
+    private final CloseableHttpClient http;
+    private final ThreadPoolExecutor copiers;
+
+    public BookingStreamClient(@Value("${shareit-server.url}") String serverUrl,
+                               @Value("${spring.mvc.async.request-timeout}") long timeoutMs,
+                               @Value("${shareit-gateway.stream.max-connections:100}") int maxConnections,
+                               @Value("${shareit-gateway.stream.connect-timeout-ms:5000}") int connectTimeoutMs,
+                               @Value("${shareit-gateway.stream.acquire-timeout-ms:1000}") int acquireTimeoutMs) {
+        this.serverUrl = serverUrl;
+        this.timeoutMs = timeoutMs;
+        PoolingHttpClientConnectionManager connections = new PoolingHttpClientConnectionManager();
+        connections.setMaxTotal(maxConnections);
+        connections.setDefaultMaxPerRoute(maxConnections);
+        this.http = HttpClients.custom()
+                               .setConnectionManager(connections)
+                               .setDefaultRequestConfig(RequestConfig.custom()
+                                                                     .setConnectTimeout(connectTimeoutMs)
+                                                                     .setConnectionRequestTimeout(acquireTimeoutMs)
+                                                                     .setSocketTimeout((int) timeoutMs)
+                                                                     .build())
+                               .build();
+        this.copiers = new ThreadPoolExecutor(0, maxConnections, 60, TimeUnit.SECONDS, new SynchronousQueue<>());
+    }
+
+    public ResponseEntity<ResponseBodyEmitter> streamOwnerBookings(Long userId) {
+        HttpGet request = new HttpGet(serverUrl + API_PREFIX + "/owner/stream");
+        request.setHeader("X-Sharer-User-Id", String.valueOf(userId));
+        request.setHeader(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE);
+
+        CloseableHttpResponse response;
+        try {
+            response = http.execute(request);
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        int status = response.getStatusLine().getStatusCode();
+        if (status != HttpStatus.OK.value()) {
+            return relayError(status, response);
+        }
+
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(timeoutMs);
+        emitter.onCompletion(request::abort);
+        emitter.onTimeout(request::abort);
+        emitter.onError(error -> request.abort());
+        try {
+            copiers.execute(() -> copy(request, response.getEntity(), emitter));
+        } catch (RejectedExecutionException e) {
+            request.abort();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(emitter);
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        copiers.shutdownNow();
+        http.close();
+    }
+
+    private static void copy(HttpGet request, HttpEntity entity, ResponseBodyEmitter emitter) {
+        try {
+            InputStream in = entity.getContent();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                emitter.send(Arrays.copyOf(buffer, read), MediaType.TEXT_EVENT_STREAM);
+            }
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        } finally {
+            // closing the stream would try to read an endless body to the end; aborting drops the connection
+            request.abort();
+        }
+    }
+
+    private static ResponseEntity<ResponseBodyEmitter> relayError(int status, CloseableHttpResponse response) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+        try (response) {
+            if (response.getEntity() != null) {
+                emitter.send(EntityUtils.toByteArray(response.getEntity()), MediaType.APPLICATION_JSON);
+            }
+            emitter.complete();
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
+        }
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(emitter);
+    }
+}
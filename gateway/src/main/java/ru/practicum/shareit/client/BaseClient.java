@@ -3,9 +3,11 @@ package ru.practicum.shareit.client;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
@@ -31,6 +33,10 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
+    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters, HttpHeaders headers) {
+        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null, headers);
+    }
+
     protected <T> ResponseEntity<Object> post(String path, T body) {
         return post(path, null, null, body);
     }
@@ -43,6 +49,18 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
+    protected <T> ResponseEntity<Object> post(String path, long userId, T body, HttpHeaders headers) {
+        return makeAndSendRequest(HttpMethod.POST, path, userId, null, body, headers);
+    }
+
+    protected static HttpHeaders idempotencyKey(@Nullable String key) {
+        HttpHeaders headers = new HttpHeaders();
+        if (key != null) {
+            headers.set("Idempotency-Key", key);
+        }
+        return headers;
+    }
+
     protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
@@ -80,7 +98,13 @@ public class BaseClient {
     }
 
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+        return makeAndSendRequest(method, path, userId, parameters, body, new HttpHeaders());
+    }
+
+    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body, HttpHeaders extraHeaders) {
+        HttpHeaders headers = defaultHeaders(userId);
+        headers.addAll(extraHeaders);
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, headers);
 
         ResponseEntity<Object> shareitServerResponse;
         try {
@@ -110,6 +134,13 @@ public class BaseClient {
             return response;
         }
 
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                 .eTag(response.getHeaders().getETag())
+                                 .cacheControl(CacheControl.noCache())
+                                 .build();
+        }
+
         ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
 
         if (response.hasBody()) {
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.exception;
+
+public class InvalidBatchException extends RuntimeException {
+    public InvalidBatchException(String message) {
+        super(message);
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.item;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
@@ -9,6 +10,7 @@ import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @Service
@@ -24,12 +26,13 @@ public class ItemClient extends BaseClient {
         );
     }
 
-    public ResponseEntity<Object> getItemsByOwner(Long userId, Integer from, Integer size) {
+    public ResponseEntity<Object> getItemsByOwner(Long userId, Integer from, Integer size, Integer commentsSize) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
-                "size", size
+                "size", size,
+                "commentsSize", commentsSize
         );
-        return get("?from={from}&size={size}", userId, parameters);
+        return get("?from={from}&size={size}&commentsSize={commentsSize}", userId, parameters);
     }
 
     public ResponseEntity<Object> getItemsByText(String text, Integer from, Integer size) {
@@ -41,16 +44,41 @@ public class ItemClient extends BaseClient {
         return get("/search?text={text}&from={from}&size={size}", null, parameters);
     }
 
-    public ResponseEntity<Object> getItem(Long itemId, Long userId) {
-        return get("/" + itemId, userId);
+    public ResponseEntity<Object> getAvailability(Long itemId, Long userId, LocalDateTime from, LocalDateTime to,
+                                                  String ifNoneMatch) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to
+        );
+        HttpHeaders headers = new HttpHeaders();
+        if (ifNoneMatch != null) {
+            headers.setIfNoneMatch(ifNoneMatch);
+        }
+        return get("/" + itemId + "/availability?from={from}&to={to}", userId, parameters, headers);
+    }
+
+    public ResponseEntity<Object> getSuggestions(String prefix, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "prefix", prefix,
+                "size", size
+        );
+        return get("/suggest?prefix={prefix}&size={size}", null, parameters);
+    }
+
+    public ResponseEntity<Object> getItem(Long itemId, Long userId, Integer commentsFrom, Integer commentsSize) {
+        Map<String, Object> parameters = Map.of(
+                "commentsFrom", commentsFrom,
+                "commentsSize", commentsSize
+        );
+        return get("/" + itemId + "?commentsFrom={commentsFrom}&commentsSize={commentsSize}", userId, parameters);
     }
 
     public ResponseEntity<Object> createItem(Long userId, ItemDto itemDto) {
         return post("", userId, itemDto);
     }
 
-    public ResponseEntity<Object> createComment(Long itemId, Long userId, CommentDto requestDto) {
-        return post("/" + itemId + "/comment", userId, requestDto);
+    public ResponseEntity<Object> createComment(Long itemId, Long userId, CommentDto requestDto, String idempotencyKey) {
+        return post("/" + itemId + "/comment", userId, requestDto, idempotencyKey(idempotencyKey));
     }
 
     public ResponseEntity<Object> updateItem(ItemDto itemDto, Long itemId, Long userId) {
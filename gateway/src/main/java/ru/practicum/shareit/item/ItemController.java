@@ -2,29 +2,36 @@ package ru.practicum.shareit.item;
 
 import lombok.AllArgsConstructor;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 
+import ru.practicum.shareit.exception.InvalidPeriodException;
 import ru.practicum.shareit.exception.PageSizeException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 import javax.validation.Valid;
+import java.time.LocalDateTime;
 
 @Controller
 @AllArgsConstructor
 @RequestMapping("/items")
 public class ItemController {
     private final String header = "X-Sharer-User-Id";
+    private final String idempotencyHeader = "Idempotency-Key";
     private final ItemClient itemClient;
 
     @GetMapping
     public ResponseEntity<Object> getItemsByOwner(@RequestHeader(header) Long ownerId,
                         @RequestParam(value = "from", defaultValue = "0") Integer from,
-                        @RequestParam(value = "size", defaultValue = "20") Integer size) {
+                        @RequestParam(value = "size", defaultValue = "20") Integer size,
+                        @RequestParam(value = "commentsSize", defaultValue = "20") Integer commentsSize) {
         checkParams(from, size);
-        return itemClient.getItemsByOwner(ownerId, from, size);
+        checkParams(0, commentsSize);
+        return itemClient.getItemsByOwner(ownerId, from, size, commentsSize);
     }
 
 
@@ -36,10 +43,32 @@ public class ItemController {
         return itemClient.getItemsByText(text, from, size);
     }
 
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> getSuggestions(@RequestParam String prefix,
+            @RequestParam(value = "size", defaultValue = "10") Integer size) {
+        checkParams(0, size);
+        return itemClient.getSuggestions(prefix, size);
+    }
+
     @GetMapping("/{itemId}")
     public ResponseEntity<Object> getItem(@RequestHeader(header) Long userId,
-                                          @PathVariable Long itemId) {
-        return itemClient.getItem(itemId, userId);
+                                          @PathVariable Long itemId,
+                                          @RequestParam(value = "commentsFrom", defaultValue = "0") Integer commentsFrom,
+                                          @RequestParam(value = "commentsSize", defaultValue = "20") Integer commentsSize) {
+        checkParams(commentsFrom, commentsSize);
+        return itemClient.getItem(itemId, userId, commentsFrom, commentsSize);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getAvailability(@RequestHeader(header) Long userId,
+            @PathVariable Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (!from.isBefore(to)) {
+            throw new InvalidPeriodException("Invalid availability period!");
+        }
+        return itemClient.getAvailability(itemId, userId, from, to, ifNoneMatch);
     }
 
     @PostMapping
@@ -50,9 +79,10 @@ public class ItemController {
 
     @PostMapping("/{itemId}/comment")
     public ResponseEntity<Object> createComment(@RequestHeader(header) Long userId,
+                                                @RequestHeader(value = idempotencyHeader, required = false) String idempotencyKey,
                                                 @PathVariable Long itemId,
                                                 @Valid @RequestBody CommentDto commentDto) {
-        return itemClient.createComment(itemId, userId, commentDto);
+        return itemClient.createComment(itemId, userId, commentDto, idempotencyKey);
     }
 
     @PatchMapping("/{itemId}")
@@ -22,7 +22,13 @@ public class ItemRequestClient extends BaseClient {
         );
     }
 
-    public ResponseEntity<Object> getAll(long userId, int from, int size) {
+    public ResponseEntity<Object> getAll(long userId, int from, int size, String cursor) {
+        if (cursor != null) {
+            Map<String, Object> parameters = Map.of(
+                    "cursor", cursor,
+                    "size", size);
+            return get("/all?cursor={cursor}&size={size}", userId, parameters);
+        }
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size);
@@ -40,4 +46,9 @@ public class ItemRequestClient extends BaseClient {
     public ResponseEntity<Object> getItemRequest(Long requestId, long userId) {
         return get("/" + requestId, userId);
     }
+
+    public ResponseEntity<Object> getCandidates(Long requestId, long userId, int size) {
+        Map<String, Object> parameters = Map.of("size", size);
+        return get("/" + requestId + "/candidates?size={size}", userId, parameters);
+    }
 }
\ No newline at end of file
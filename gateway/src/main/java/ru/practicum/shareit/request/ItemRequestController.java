@@ -20,9 +20,10 @@ public class ItemRequestController {
     @GetMapping("/all")
     public ResponseEntity<Object> getAllItemRequests(@RequestHeader(header) Long userId,
                                     @RequestParam(value = "from", defaultValue = "0") Integer from,
-                                    @RequestParam(value = "size", defaultValue = "10") Integer size) {
+                                    @RequestParam(value = "size", defaultValue = "10") Integer size,
+                                    @RequestParam(value = "cursor", required = false) String cursor) {
         checkParams(from, size);
-        return itemRequestClient.getAll(userId, from, size);
+        return itemRequestClient.getAll(userId, from, size, cursor);
     }
 
     @GetMapping
@@ -36,6 +37,14 @@ public class ItemRequestController {
         return itemRequestClient.getItemRequest(requestId, userId);
     }
 
+    @GetMapping(value = "/{requestId}/candidates")
+    public ResponseEntity<Object> getCandidates(@RequestHeader(header) Long userId,
+                                                @PathVariable Long requestId,
+                                                @RequestParam(value = "size", defaultValue = "10") Integer size) {
+        checkParams(0, size);
+        return itemRequestClient.getCandidates(requestId, userId, size);
+    }
+
     @PostMapping
     public ResponseEntity<Object> createItemRequest(@RequestHeader(header) Long userId,
                                                     @Valid @RequestBody ItemRequestDto requestDto) {
@@ -2,6 +2,9 @@ package ru.practicum.shareit.booking;
 
 import java.util.List;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -11,24 +14,62 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.dto.BookingDecision;
+import ru.practicum.shareit.booking.dto.BookingDecisionResult;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingSummary;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.idempotency.IdempotencyService;
+import ru.practicum.shareit.pagination.PageCursor;
 
 @RestController
 @RequestMapping("/bookings")
 @RequiredArgsConstructor
 public class BookingController {
     private final String header = "X-Sharer-User-Id";
+    private final String idempotencyHeader = "Idempotency-Key";
     private final BookingService service;
+    private final IdempotencyService idempotency;
 
     @PostMapping
     public Booking addBooking(@RequestHeader(header) Long userId,
+                              @RequestHeader(value = idempotencyHeader, required = false) String idempotencyKey,
                               @RequestBody BookingDto booking) {
-        return service.addBooking(userId, booking);
+        return idempotency.execute("bookings:" + userId, idempotencyKey, booking, Booking.class,
+                                   () -> service.addBooking(userId, booking));
+    }
+
+    @PostMapping("/batch")
+    public List<BookingBatchResult> addBookings(@RequestHeader(header) Long userId,
+                                                @RequestBody List<BookingDto> bookings) {
+        return service.addBookings(userId, bookings);
+    }
+
+    @PatchMapping("/owner/decisions")
+    public List<BookingDecisionResult> decideBookings(@RequestHeader(header) Long userId,
+                                                      @RequestBody List<BookingDecision> decisions) {
+        return service.decideBookings(userId, decisions);
+    }
+
+    @GetMapping("/summary")
+    public BookingSummary getSummaryByUserId(@RequestHeader(header) Long userId) {
+        return service.getSummaryByUserId(userId);
+    }
+
+    @GetMapping("/owner/summary")
+    public BookingSummary getSummaryByOwnerId(@RequestHeader(header) Long userId) {
+        return service.getSummaryByOwnerId(userId);
+    }
+
+    @GetMapping(value = "/owner/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOwnerBookings(@RequestHeader(header) Long userId) {
+        return service.subscribeOwner(userId);
     }
 
     @PatchMapping("/{bookingId}")
@@ -45,18 +86,30 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<Booking> getAllByUserId(@RequestParam Integer from,
-                                        @RequestParam Integer size,
-                                        @RequestHeader(header) Long userId,
-                                        @RequestParam String state) {
-        return service.getAllByUserId(from, size, userId, State.valueOf(state));
+    public ResponseEntity<List<Booking>> getAllByUserId(@RequestParam(defaultValue = "0") Integer from,
+                                                        @RequestParam Integer size,
+                                                        @RequestHeader(header) Long userId,
+                                                        @RequestParam String state,
+                                                        @RequestParam(required = false) String cursor) {
+        List<Booking> bookings = cursor == null
+                ? service.getAllByUserId(from, size, userId, State.valueOf(state))
+                : service.getAllByUserIdAfter(PageCursor.decode(cursor), size, userId, State.valueOf(state));
+        return ResponseEntity.ok().headers(nextPage(bookings, size)).body(bookings);
     }
 
     @GetMapping("/owner")
-    public List<Booking> getAllByOwnerId(@RequestParam Integer from,
-                                         @RequestParam Integer size,
-                                         @RequestHeader(header) Long userId,
-                                         @RequestParam String state) {
-        return service.getAllByOwnerId(from, size, userId, State.valueOf(state));
+    public ResponseEntity<List<Booking>> getAllByOwnerId(@RequestParam(defaultValue = "0") Integer from,
+                                                         @RequestParam Integer size,
+                                                         @RequestHeader(header) Long userId,
+                                                         @RequestParam String state,
+                                                         @RequestParam(required = false) String cursor) {
+        List<Booking> bookings = cursor == null
+                ? service.getAllByOwnerId(from, size, userId, State.valueOf(state))
+                : service.getAllByOwnerIdAfter(PageCursor.decode(cursor), size, userId, State.valueOf(state));
+        return ResponseEntity.ok().headers(nextPage(bookings, size)).body(bookings);
+    }
+
+    private HttpHeaders nextPage(List<Booking> bookings, Integer size) {
+        return PageCursor.nextPage(bookings, size, booking -> new PageCursor(booking.getStart(), booking.getId()));
     }
 }
\ No newline at end of file
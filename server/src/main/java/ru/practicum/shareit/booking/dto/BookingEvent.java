@@ -0,0 +1,41 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingEvent {
+    public static final String CREATED = "created";
+    public static final String STATUS_CHANGED = "status-changed";
+
+    Long bookingId;
+    Long itemId;
+    Long bookerId;
+    LocalDateTime start;
+    LocalDateTime end;
+    Status status;
+
+    public static BookingEvent of(Booking booking) {
+        return of(booking, booking.getStatus());
+    }
+
+    public static BookingEvent of(Booking booking, Status status) {
+        return BookingEvent.builder()
+                           .bookingId(booking.getId())
+                           .itemId(booking.getItem().getId())
+                           .bookerId(booking.getBooker().getId())
+                           .start(booking.getStart())
+                           .end(booking.getEnd())
+                           .status(status)
+                           .build();
+    }
+}
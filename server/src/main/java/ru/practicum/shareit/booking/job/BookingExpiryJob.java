@@ -0,0 +1,58 @@
+package ru.practicum.shareit.booking.job;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+
+@Component
+@ConditionalOnProperty(name = "shareit.booking.expiry.enabled", havingValue = "true", matchIfMissing = true)
+public class BookingExpiryJob {
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final int batchSize;
+    private final int maxBatches;
+    private final Counter expired;
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    public BookingExpiryJob(BookingService bookingService,
+                            BookingRepository bookingRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${shareit.booking.expiry.batch-size:500}") int batchSize,
+                            @Value("${shareit.booking.expiry.max-batches:100}") int maxBatches) {
+        this.bookingService = bookingService;
+        this.bookingRepository = bookingRepository;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.expired = Counter.builder("shareit.bookings.expired")
+                              .description("WAITING bookings moved to EXPIRED")
+                              .register(meterRegistry);
+        meterRegistry.gauge("shareit.bookings.expiry.lag.seconds", lagSeconds);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.expiry.delay-ms:60000}")
+    public int expire() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            int updated = bookingService.expireOverdue(now, batchSize);
+            total += updated;
+            expired.increment(updated);
+            if (updated < batchSize) {
+                break;
+            }
+        }
+        lagSeconds.set(bookingRepository.findOldestOverdueWaitingStart(now)
+                                        .map(start -> Duration.between(start, now).getSeconds())
+                                        .orElse(0L));
+        return total;
+    }
+}
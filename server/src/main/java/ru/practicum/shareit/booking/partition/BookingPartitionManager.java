@@ -0,0 +1,247 @@
+package ru.practicum.shareit.booking.partition;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+@ConditionalOnProperty(name = "shareit.booking.partitioning.enabled", havingValue = "true")
+public class BookingPartitionManager {
+    public static final String COLD_PARTITION = "bookings_cold";
+    public static final String DEFAULT_PARTITION = "bookings_default";
+    private static final String PREFIX = "bookings_p";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String RANGE_PREFIX = "bookings_r";
+    private static final String DEFAULT_BOUND_CHECK = "bookings_default_bound";
+    private static final Pattern LOWER_BOUND = Pattern.compile("FROM \\('(\\d{4}-\\d{2}-\\d{2})");
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('(\\d{4}-\\d{2}-\\d{2})");
+    private static final long MAINTENANCE_LOCK = 0x626f6f6b696e6773L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public BookingPartitionManager(JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${shareit.booking.partitioning.months-ahead:12}") int monthsAhead,
+                                   @Value("${shareit.booking.partitioning.retention-months:12}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    /**
+     * Runs on every instance, so the work is guarded by a session advisory lock held on a connection of its own;
+     * instances that do not get it skip the run.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${shareit.booking.partitioning.cron:0 30 3 * * *}")
+    public void maintain() {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (!advisoryLock(connection, "pg_try_advisory_lock")) {
+                return null;
+            }
+            try {
+                maintainPartitions();
+            } finally {
+                advisoryLock(connection, "pg_advisory_unlock");
+            }
+            return null;
+        });
+    }
+
+    private void maintainPartitions() {
+        YearMonth current = YearMonth.now();
+        archive(current.minusMonths(retentionMonths));
+        LocalDate coldBound = findColdUpperBound();
+        for (YearMonth month = current.minusMonths(1); !month.isAfter(current.plusMonths(monthsAhead));
+             month = month.plusMonths(1)) {
+            if (!month.atDay(1).isBefore(coldBound)) {
+                createPartition(month);
+            }
+        }
+    }
+
+    public void createPartition(YearMonth month) {
+        createPartition(partitionName(month), month.atDay(1), month.plusMonths(1).atDay(1));
+    }
+
+    /**
+     * Creates the partition and moves its rows out of the default partition in one transaction, so readers see the
+     * rows in one place or the other and never in neither.
+     */
+    private void createPartition(String name, LocalDate from, LocalDate to) {
+        if (exists(name)) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE bookings INCLUDING DEFAULTS)");
+            jdbcTemplate.update(moveRows(DEFAULT_PARTITION, name, from.toString(), to.toString()));
+            jdbcTemplate.execute("ALTER TABLE bookings ATTACH PARTITION " + name
+                    + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        });
+    }
+
+    /**
+     * Moves everything that starts before the given month under the cold partition without copying rows. Ranges
+     * not covered by a partition yet are first split out of the default partition. Each partition to be moved gets
+     * a validated CHECK matching its bound, and the default partition one excluding the new cold range, so the
+     * final ATTACH statements do not scan. The move itself happens in one short transaction: cold and the old
+     * partitions are detached, the old partitions attached under cold, and cold re-attached with the wider bound.
+     * Readers wait for that transaction but always see every committed row.
+     */
+    public void archive(YearMonth before) {
+        LocalDate bound = before.atDay(1);
+        LocalDate coldBound = findColdUpperBound();
+        if (!bound.isAfter(coldBound)) {
+            return;
+        }
+        fillGaps(coldBound, bound);
+        Map<String, LocalDate[]> archived = findPartitionsBetween(coldBound, bound);
+        for (Map.Entry<String, LocalDate[]> partition : archived.entrySet()) {
+            LocalDate[] range = partition.getValue();
+            addBoundCheck(partition.getKey(), "start_date >= '" + range[0] + "' AND start_date < '" + range[1] + "'");
+        }
+        jdbcTemplate.execute("ALTER TABLE " + DEFAULT_PARTITION + " DROP CONSTRAINT IF EXISTS " + DEFAULT_BOUND_CHECK);
+        addBoundCheck(DEFAULT_PARTITION, DEFAULT_BOUND_CHECK, "start_date >= '" + bound + "'");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("ALTER TABLE bookings DETACH PARTITION " + COLD_PARTITION);
+            for (Map.Entry<String, LocalDate[]> partition : archived.entrySet()) {
+                LocalDate[] range = partition.getValue();
+                jdbcTemplate.execute("ALTER TABLE bookings DETACH PARTITION " + partition.getKey());
+                jdbcTemplate.execute("ALTER TABLE " + COLD_PARTITION + " ATTACH PARTITION " + partition.getKey()
+                        + " FOR VALUES FROM ('" + range[0] + "') TO ('" + range[1] + "')");
+            }
+            jdbcTemplate.execute("ALTER TABLE bookings ATTACH PARTITION " + COLD_PARTITION
+                    + " FOR VALUES FROM (MINVALUE) TO ('" + bound + "')");
+            jdbcTemplate.execute("ALTER TABLE " + DEFAULT_PARTITION + " DROP CONSTRAINT " + DEFAULT_BOUND_CHECK);
+        });
+    }
+
+    public LocalDate findColdUpperBound() {
+        String bound = jdbcTemplate.queryForObject("SELECT pg_get_expr(c.relpartbound, c.oid) FROM pg_class c "
+                + "WHERE c.relname = ?", String.class, COLD_PARTITION);
+        return parseUpperBound(bound);
+    }
+
+    private void fillGaps(LocalDate from, LocalDate to) {
+        LocalDate covered = from;
+        for (LocalDate[] range : findPartitionsBetween(from, to).values()) {
+            if (range[0].isAfter(covered)) {
+                createPartition(rangeName(covered, range[0]), covered, range[0]);
+            }
+            covered = range[1];
+        }
+        if (covered.isBefore(to)) {
+            createPartition(rangeName(covered, to), covered, to);
+        }
+    }
+
+    /**
+     * Returns the partitions of bookings lying entirely within the range, keyed by name in the order of their lower
+     * bounds.
+     */
+    private Map<String, LocalDate[]> findPartitionsBetween(LocalDate from, LocalDate to) {
+        TreeMap<LocalDate, String> names = new TreeMap<>();
+        Map<String, LocalDate[]> ranges = new HashMap<>();
+        jdbcTemplate.query("SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) FROM pg_inherits i "
+                + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'bookings'::regclass", rs -> {
+                    String name = rs.getString(1);
+                    if (name.equals(COLD_PARTITION) || name.equals(DEFAULT_PARTITION)) {
+                        return;
+                    }
+                    LocalDate[] range = {parseLowerBound(rs.getString(2)), parseUpperBound(rs.getString(2))};
+                    if (!range[0].isBefore(from) && !range[1].isAfter(to)) {
+                        names.put(range[0], name);
+                        ranges.put(name, range);
+                    }
+                });
+        Map<String, LocalDate[]> result = new LinkedHashMap<>();
+        names.values().forEach(name -> result.put(name, ranges.get(name)));
+        return result;
+    }
+
+    private void addBoundCheck(String table, String condition) {
+        addBoundCheck(table, table + "_bound", condition);
+    }
+
+    /**
+     * Adds the constraint as NOT VALID, which only locks the table briefly, and then validates it, which scans
+     * the table without blocking reads or writes.
+     */
+    private void addBoundCheck(String table, String constraint, String condition) {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_constraint "
+                + "WHERE conname = ? AND conrelid = ?::regclass", Integer.class, constraint, table);
+        if (existing == null || existing == 0) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ADD CONSTRAINT " + constraint
+                    + " CHECK (" + condition + ") NOT VALID");
+        }
+        jdbcTemplate.execute("ALTER TABLE " + table + " VALIDATE CONSTRAINT " + constraint);
+    }
+
+    private boolean exists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class,
+                                                               table));
+    }
+
+    private static boolean advisoryLock(Connection connection, String function) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT " + function + "(?)")) {
+            statement.setLong(1, MAINTENANCE_LOCK);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+
+    public static String partitionName(YearMonth month) {
+        return PREFIX + month.format(SUFFIX);
+    }
+
+    public static LocalDate parseUpperBound(String bound) {
+        Matcher matcher = UPPER_BOUND.matcher(bound);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Unexpected partition bound: " + bound);
+        }
+        return LocalDate.parse(matcher.group(1));
+    }
+
+    public static LocalDate parseLowerBound(String bound) {
+        Matcher matcher = LOWER_BOUND.matcher(bound);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Unexpected partition bound: " + bound);
+        }
+        return LocalDate.parse(matcher.group(1));
+    }
+
+    public static String rangeName(LocalDate from, LocalDate to) {
+        return RANGE_PREFIX + YearMonth.from(from).format(SUFFIX) + "_" + YearMonth.from(to).format(SUFFIX);
+    }
+
+    private static String moveRows(String source, String target, String from, String to) {
+        return "WITH moved AS (DELETE FROM " + source + " WHERE start_date >= '" + from
+                + "' AND start_date < '" + to + "' RETURNING *) INSERT INTO " + target + " SELECT * FROM moved";
+    }
+}
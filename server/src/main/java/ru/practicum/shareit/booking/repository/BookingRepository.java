@@ -1,25 +1,99 @@
 package ru.practicum.shareit.booking.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.dto.BookingSummary;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatusView;
 import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.model.BookingSlot;
+import ru.practicum.shareit.item.model.BookingWindowVersion;
+import ru.practicum.shareit.item.model.ItemBooking;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    @Query(value = "SELECT b FROM Booking b WHERE b.item.id IN (SELECT DISTINCT i.id FROM Item i WHERE i.owner = ?1)" +
-                   "ORDER BY b.start DESC")
-    List<Booking> findBookingsByOwnerId(long ownerId, PageRequest of);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
+    String SUMMARY = "SELECT new ru.practicum.shareit.booking.dto.BookingSummary(COUNT(b), " +
+            "COALESCE(SUM(CASE WHEN b.start < :now AND b.end > :now THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN b.start < :now AND b.end < :now THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN b.start > :now THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN b.status = ru.practicum.shareit.booking.model.Status.WAITING THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN b.status = ru.practicum.shareit.booking.model.Status.REJECTED THEN 1 ELSE 0 END), 0)) " +
+            "FROM Booking b ";
 
-    Booking findFirstBookingByItemIdAndStartAfterOrderByStartAsc(long itemId, LocalDateTime start);
+    @Override
+    @EntityGraph(Booking.DETAIL_GRAPH)
+    Optional<Booking> findById(Long id);
 
-    Booking findTopBookingByItemIdOrderByStartAsc(long itemId);
+    @Query(value = "SELECT ranked.item_id AS itemId, ranked.id AS id, ranked.booker_id AS bookerId, " +
+            "ranked.start_date AS start " +
+            "FROM (SELECT b.item_id, b.id, b.booker_id, b.start_date, " +
+            "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_date, b.id) AS rn " +
+            "FROM bookings b WHERE b.item_id IN (:itemIds)) ranked " +
+            "WHERE ranked.rn = 1", nativeQuery = true)
+    List<ItemBooking> findLastBookingsByItemIds(Collection<Long> itemIds);
+
+    @Query(value = "SELECT ranked.item_id AS itemId, ranked.id AS id, ranked.booker_id AS bookerId, " +
+            "ranked.start_date AS start " +
+            "FROM (SELECT b.item_id, b.id, b.booker_id, b.start_date, " +
+            "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_date, b.id) AS rn " +
+            "FROM bookings b WHERE b.item_id IN (:itemIds) AND b.start_date > :now) ranked " +
+            "WHERE ranked.rn = 1", nativeQuery = true)
+    List<ItemBooking> findNextBookingsByItemIds(Collection<Long> itemIds, LocalDateTime now);
 
     Optional<Booking> findFirstBookingByItemIdAndBookerIdAndStatusOrderByStartAsc(long itemId, long userId, Status status);
 
-    List<Booking> findAllByBookerId(long userId, PageRequest of);
-}
\ No newline at end of file
+    List<BookingSlot> findByItemIdAndStatusInAndStartBeforeAndEndAfterOrderByStartAsc(long itemId,
+                                                                                    Collection<Status> statuses,
+                                                                                    LocalDateTime to,
+                                                                                    LocalDateTime from);
+
+    @Query("SELECT COUNT(b) AS bookings, COALESCE(MAX(b.id), 0) AS maxId, COALESCE(SUM(b.version), 0) AS versionSum " +
+            "FROM Booking b WHERE b.item.id = :itemId AND b.start < :to AND b.end > :from")
+    BookingWindowVersion findWindowVersion(long itemId, LocalDateTime from, LocalDateTime to);
+
+    @EntityGraph(attributePaths = "item")
+    List<Booking> findAllByIdInAndItemOwner(Collection<Long> ids, long ownerId);
+
+    List<BookingStatusView> findAllByIdIn(Collection<Long> ids);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status, b.version = b.version + 1 " +
+            "WHERE b.id IN :ids AND b.status = ru.practicum.shareit.booking.model.Status.WAITING")
+    int updateWaitingStatus(Collection<Long> ids, Status status);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = ru.practicum.shareit.booking.model.Status.EXPIRED, " +
+            "b.version = b.version + 1 " +
+            "WHERE b.id = :id AND b.start BETWEEN :from AND :to " +
+            "AND b.status = ru.practicum.shareit.booking.model.Status.WAITING")
+    int expireWaiting(Long id, LocalDateTime from, LocalDateTime to);
+
+    @EntityGraph(attributePaths = "item")
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.status = ru.practicum.shareit.booking.model.Status.WAITING AND b.start < :now " +
+            "ORDER BY b.start, b.id")
+    List<Booking> findOverdueWaiting(LocalDateTime now, Pageable page);
+
+    @Query("SELECT MIN(b.start) FROM Booking b " +
+            "WHERE b.status = ru.practicum.shareit.booking.model.Status.WAITING AND b.start < :now")
+    Optional<LocalDateTime> findOldestOverdueWaitingStart(LocalDateTime now);
+
+    List<Booking> findAllByStatusAndEndAfter(Status status, LocalDateTime end);
+
+    @Query(SUMMARY + "WHERE b.booker.id = :bookerId")
+    BookingSummary findSummaryByBookerId(long bookerId, LocalDateTime now);
+
+    @Query(SUMMARY + "WHERE b.item.owner = :ownerId")
+    BookingSummary findSummaryByItemOwner(long ownerId, LocalDateTime now);
+
+    boolean existsByBookerId(long userId);
+
+    boolean existsByItemOwner(long ownerId);
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.PageRequest;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.pagination.PageCursor;
+
+public interface BookingRepositoryCustom {
+    List<Booking> findBookerFeed(long bookerId, State state, LocalDateTime now, PageRequest page);
+
+    List<Booking> findOwnerFeed(long ownerId, State state, LocalDateTime now, PageRequest page);
+
+    List<Booking> findBookerFeedAfter(long bookerId, State state, LocalDateTime now, PageCursor after, int size);
+
+    List<Booking> findOwnerFeedAfter(long ownerId, State state, LocalDateTime now, PageCursor after, int size);
+}
@@ -0,0 +1,116 @@
+package ru.practicum.shareit.booking.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Fetch;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.springframework.data.domain.PageRequest;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
+
+public class BookingRepositoryImpl implements BookingRepositoryCustom {
+    private enum Role {
+        BOOKER,
+        OWNER
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Booking> findBookerFeed(long bookerId, State state, LocalDateTime now, PageRequest page) {
+        return findFeed(Role.BOOKER, bookerId, state, now, null, page.getOffset(), page.getPageSize());
+    }
+
+    @Override
+    public List<Booking> findOwnerFeed(long ownerId, State state, LocalDateTime now, PageRequest page) {
+        return findFeed(Role.OWNER, ownerId, state, now, null, page.getOffset(), page.getPageSize());
+    }
+
+    @Override
+    public List<Booking> findBookerFeedAfter(long bookerId, State state, LocalDateTime now, PageCursor after, int size) {
+        return findFeed(Role.BOOKER, bookerId, state, now, after, 0, size);
+    }
+
+    @Override
+    public List<Booking> findOwnerFeedAfter(long ownerId, State state, LocalDateTime now, PageCursor after, int size) {
+        return findFeed(Role.OWNER, ownerId, state, now, after, 0, size);
+    }
+
+    private List<Booking> findFeed(Role role, long userId, State state, LocalDateTime now,
+                                   PageCursor after, long offset, int size) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Booking> query = cb.createQuery(Booking.class);
+        Root<Booking> booking = query.from(Booking.class);
+
+        booking.fetch("booker", JoinType.INNER);
+        Join<Booking, Item> item = fetchJoin(booking.fetch("item", JoinType.INNER));
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (role == Role.OWNER) {
+            predicates.add(cb.equal(item.get("owner"), userId));
+        } else {
+            predicates.add(cb.equal(booking.get("booker").get("id"), userId));
+        }
+        predicates.addAll(statePredicates(cb, booking, state, now));
+        if (after != null) {
+            predicates.add(cb.or(cb.lessThan(booking.<LocalDateTime>get("start"), after.getPosition()),
+                                 cb.and(cb.equal(booking.get("start"), after.getPosition()),
+                                        cb.lessThan(booking.<Long>get("id"), after.getId()))));
+        }
+
+        query.select(booking)
+             .where(predicates.toArray(new Predicate[0]))
+             .orderBy(cb.desc(booking.get("start")), cb.desc(booking.get("id")));
+
+        return entityManager.createQuery(query)
+                            .setFirstResult((int) offset)
+                            .setMaxResults(size)
+                            .getResultList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <X, Y> Join<X, Y> fetchJoin(Fetch<X, Y> fetch) {
+        return (Join<X, Y>) fetch;
+    }
+
+    private List<Predicate> statePredicates(CriteriaBuilder cb, Root<Booking> booking,
+                                            State state, LocalDateTime now) {
+        List<Predicate> predicates = new ArrayList<>();
+        switch (state) {
+            case CURRENT:
+                predicates.add(cb.lessThan(booking.<LocalDateTime>get("start"), now));
+                predicates.add(cb.greaterThan(booking.<LocalDateTime>get("end"), now));
+                break;
+            case PAST:
+                predicates.add(cb.lessThan(booking.<LocalDateTime>get("start"), now));
+                predicates.add(cb.lessThan(booking.<LocalDateTime>get("end"), now));
+                break;
+            case FUTURE:
+                predicates.add(cb.greaterThan(booking.<LocalDateTime>get("start"), now));
+                break;
+            case WAITING:
+                predicates.add(cb.equal(booking.get("status"), Status.WAITING));
+                break;
+            case REJECTED:
+                predicates.add(cb.equal(booking.get("status"), Status.REJECTED));
+                break;
+            default:
+        }
+        return predicates;
+    }
+}
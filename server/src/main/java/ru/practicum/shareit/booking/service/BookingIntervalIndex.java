@@ -0,0 +1,159 @@
+package ru.practicum.shareit.booking.service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+    private static final int STRIPES = 64;
+
+    private final BookingRepository bookingRepository;
+    private final Map<Long, NavigableMap<LocalDateTime, Interval>> intervals = new ConcurrentHashMap<>();
+    private final Map<Long, Booking> reserved = new ConcurrentHashMap<>();
+    private final ReentrantLock[] locks = createLocks();
+
+    /**
+     * Reloads approved bookings while holding every stripe lock, in the same ascending order as
+     * {@link #locked(Collection, Supplier)}, so no approval checks or reserves against a half-built index.
+     * Reservations whose transactions are still open are not visible to the query yet and are put back on top.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        int locked = 0;
+        try {
+            for (ReentrantLock lock : locks) {
+                lock.lock();
+                locked++;
+            }
+            intervals.clear();
+            for (Booking booking : bookingRepository.findAllByStatusAndEndAfter(Status.APPROVED, LocalDateTime.now())) {
+                add(booking);
+            }
+            reserved.values().forEach(this::add);
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    public <T> T locked(long itemId, Supplier<T> action) {
+        ReentrantLock lock = locks[stripe(itemId)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public <T> T locked(Collection<Long> itemIds, Supplier<T> action) {
+        int[] stripes = itemIds.stream().mapToInt(this::stripe).distinct().sorted().toArray();
+        int locked = 0;
+        try {
+            for (int stripe : stripes) {
+                locks[stripe].lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                locks[stripes[i]].unlock();
+            }
+        }
+    }
+
+    public boolean overlaps(long itemId, LocalDateTime start, LocalDateTime end) {
+        NavigableMap<LocalDateTime, Interval> item = intervals.get(itemId);
+        if (item == null) {
+            return false;
+        }
+        Map.Entry<LocalDateTime, Interval> before = item.floorEntry(start);
+        if (before != null && before.getValue().end.isAfter(start)) {
+            return true;
+        }
+        Map.Entry<LocalDateTime, Interval> after = item.higherEntry(start);
+        return after != null && after.getKey().isBefore(end);
+    }
+
+    public void add(Booking booking) {
+        NavigableMap<LocalDateTime, Interval> item = intervals.computeIfAbsent(booking.getItem().getId(),
+                                                                               id -> new TreeMap<>());
+        item.headMap(LocalDateTime.now()).values().removeIf(interval -> interval.end.isBefore(LocalDateTime.now()));
+        item.put(booking.getStart(), new Interval(booking.getEnd(), booking.getId()));
+    }
+
+    /**
+     * Adds the interval right away so that concurrent approvals see it, and takes it back out if the
+     * surrounding transaction does not commit.
+     */
+    public void reserve(Booking booking) {
+        add(booking);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            reserved.put(booking.getId(), booking);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    locked(booking.getItem().getId(), () -> {
+                        reserved.remove(booking.getId());
+                        if (status != STATUS_COMMITTED) {
+                            remove(booking);
+                        }
+                        return null;
+                    });
+                }
+            });
+        }
+    }
+
+    public void remove(Booking booking) {
+        NavigableMap<LocalDateTime, Interval> item = intervals.get(booking.getItem().getId());
+        if (item == null) {
+            return;
+        }
+        Interval interval = item.get(booking.getStart());
+        if (interval != null && interval.bookingId.equals(booking.getId())) {
+            item.remove(booking.getStart());
+        }
+    }
+
+    private int stripe(long itemId) {
+        int hash = Long.hashCode(itemId);
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    private static ReentrantLock[] createLocks() {
+        ReentrantLock[] locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    private static class Interval {
+        private final LocalDateTime end;
+        private final Long bookingId;
+
+        private Interval(LocalDateTime end, Long bookingId) {
+            this.end = end;
+            this.bookingId = bookingId;
+        }
+    }
+}
@@ -1,19 +1,42 @@
 package ru.practicum.shareit.booking.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.dto.BookingDecision;
+import ru.practicum.shareit.booking.dto.BookingDecisionResult;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingSummary;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.pagination.PageCursor;
 
 public interface BookingService {
     Booking addBooking(Long userId, BookingDto booking);
 
+    List<BookingBatchResult> addBookings(Long userId, List<BookingDto> bookings);
+
     Booking updateBooking(Long userId, Boolean isApproved, Long bookingId);
 
+    List<BookingDecisionResult> decideBookings(Long userId, List<BookingDecision> decisions);
+
+    int expireOverdue(LocalDateTime now, int limit);
+
+    SseEmitter subscribeOwner(Long userId);
+
+    BookingSummary getSummaryByUserId(Long userId);
+
+    BookingSummary getSummaryByOwnerId(Long userId);
+
     Booking getBookingById(Long userId, Long bookingId);
 
     List<Booking> getAllByUserId(Integer from, Integer size, Long userId, State state);
 
     List<Booking> getAllByOwnerId(Integer from, Integer size, Long userId, State state);
+
+    List<Booking> getAllByUserIdAfter(PageCursor after, Integer size, Long userId, State state);
+
+    List<Booking> getAllByOwnerIdAfter(PageCursor after, Integer size, Long userId, State state);
 }
@@ -1,24 +1,45 @@
 package ru.practicum.shareit.booking.service;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.dto.BookingDecision;
+import ru.practicum.shareit.booking.dto.BookingDecisionResult;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingEvent;
+import ru.practicum.shareit.booking.dto.BookingSummary;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatusView;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.stream.BookingEventRegistry;
 import ru.practicum.shareit.exception.BookingException;
 import ru.practicum.shareit.exception.BookingNotFoundException;
 import ru.practicum.shareit.exception.ItemNotFoundException;
 import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingSummaryUpdater;
+import ru.practicum.shareit.outbox.OutboxEvent;
+import ru.practicum.shareit.outbox.OutboxService;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.transaction.AfterCommit;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
@@ -28,30 +49,20 @@ public class BookingServiceImpl implements BookingService {
     private final UserService userService;
     private final BookingRepository bookingRepository;
     private final ItemRepository itemRepository;
+    private final BookingIntervalIndex intervalIndex;
+    private final BookingEventRegistry eventRegistry;
+    private final BookingSummaryCache summaryCache;
+    private final ItemBookingSummaryUpdater itemSummaryUpdater;
+    private final OutboxService outbox;
 
     @Override
+    @Transactional
     public Booking addBooking(Long userId, BookingDto booking) {
         Item item = itemRepository.findById(booking.getItemId())
                                   .orElseThrow(() -> new ItemNotFoundException("Item not found!"));
-        User owner = userService.getUser(item.getOwner());
         User booker = userService.getUser(userId);
 
-        if (owner.getId().equals(booker.getId())) {
-            throw new UserNotFoundException("Owner can not book his item!");
-        }
-
-        if (!item.isAvailable()) {
-            throw new BookingException("Item is not available!");
-        }
-
-        if (booking.getEnd().isBefore(booking.getStart()) ||
-            booking.getEnd().isBefore(LocalDateTime.now())) {
-            throw new BookingException("Invalid end time of booking!");
-        }
-
-        if (booking.getStart().isBefore(LocalDateTime.now())) {
-            throw new BookingException("Invalid start time of booking!");
-        }
+        checkCanBook(item, booker.getId(), booking);
 
         Booking toSave = Booking.builder()
                                 .start(booking.getStart())
@@ -61,11 +72,64 @@ public class BookingServiceImpl implements BookingService {
                                 .status(Status.WAITING)
                                 .build();
 
-        toSave = bookingRepository.save(toSave);
-        return toSave;
+        Booking saved = intervalIndex.locked(item.getId(), () -> {
+            checkNotOverlapping(toSave);
+            return bookingRepository.save(toSave);
+        });
+        itemSummaryUpdater.refresh(List.of(item.getId()));
+        publish(item.getOwner(), BookingEvent.CREATED, BookingEvent.of(saved));
+        return saved;
     }
 
     @Override
+    @Transactional
+    public List<BookingBatchResult> addBookings(Long userId, List<BookingDto> bookings) {
+        User booker = userService.getUser(userId);
+        Set<Long> itemIds = bookings.stream()
+                                    .map(BookingDto::getItemId)
+                                    .filter(Objects::nonNull)
+                                    .collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllById(itemIds)
+                                              .stream()
+                                              .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        List<BookingBatchResult> results = new ArrayList<>(bookings.size());
+        List<Booking> toSave = new ArrayList<>();
+        intervalIndex.locked(itemIds, () -> {
+            for (int i = 0; i < bookings.size(); i++) {
+                BookingDto booking = bookings.get(i);
+                try {
+                    Item item = items.get(booking.getItemId());
+                    if (item == null) {
+                        throw new ItemNotFoundException("Item not found!");
+                    }
+                    checkCanBook(item, booker.getId(), booking);
+                    Booking created = Booking.builder()
+                                             .start(booking.getStart())
+                                             .end(booking.getEnd())
+                                             .item(item)
+                                             .booker(booker)
+                                             .status(Status.WAITING)
+                                             .build();
+                    checkNotOverlapping(created);
+                    toSave.add(created);
+                    results.add(BookingBatchResult.builder().index(i).booking(created).build());
+                } catch (ItemNotFoundException | UserNotFoundException | BookingException e) {
+                    results.add(BookingBatchResult.builder().index(i).error(e.getMessage()).build());
+                }
+            }
+            return bookingRepository.saveAll(toSave);
+        });
+        itemSummaryUpdater.refresh(toSave.stream().map(created -> created.getItem().getId()).collect(Collectors.toSet()));
+        for (Booking created : toSave) {
+            publish(created.getItem().getOwner(), BookingEvent.CREATED, BookingEvent.of(created));
+        }
+
+        return results;
+    }
+
+    @Override
+    @Transactional
     public Booking updateBooking(Long userId, Boolean isApproved, Long bookingId) {
         Booking booking = bookingRepository.findById(bookingId).orElseThrow(() -> new BookingException("Booking not found!"));
 
@@ -73,22 +137,148 @@ public class BookingServiceImpl implements BookingService {
             throw new UserNotFoundException("User is not an owner!");
         }
 
-        if (booking.getStatus().equals(Status.REJECTED) ||
-            booking.getStatus().equals(Status.APPROVED)) {
+        if (booking.getStatus() != Status.WAITING) {
             throw new BookingException("booking has been already approved/rejected");
         }
 
-        if (isApproved) {
-            booking.setStatus(Status.APPROVED);
-        } else {
+        Booking updated;
+        if (!isApproved) {
             booking.setStatus(Status.REJECTED);
+            updated = bookingRepository.save(booking);
+        } else {
+            updated = intervalIndex.locked(booking.getItem().getId(), () -> {
+                checkNotOverlapping(booking);
+                booking.setStatus(Status.APPROVED);
+                Booking approved = bookingRepository.save(booking);
+                intervalIndex.reserve(approved);
+                return approved;
+            });
+            itemSummaryUpdater.refresh(List.of(updated.getItem().getId()));
         }
-        booking = bookingRepository.save(booking);
+        publish(userId, BookingEvent.STATUS_CHANGED, BookingEvent.of(updated));
+        return updated;
+    }
 
-        return booking;
+    @Override
+    @Transactional
+    public List<BookingDecisionResult> decideBookings(Long userId, List<BookingDecision> decisions) {
+        Map<Long, Boolean> approvals = new LinkedHashMap<>();
+        for (BookingDecision decision : decisions) {
+            approvals.put(decision.getBookingId(), decision.getApproved());
+        }
+        Map<Long, Booking> bookings = bookingRepository.findAllByIdInAndItemOwner(approvals.keySet(), userId)
+                                                       .stream()
+                                                       .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        Map<Long, String> errors = new HashMap<>();
+        List<Long> toReject = new ArrayList<>();
+        List<Booking> toApprove = new ArrayList<>();
+        for (Map.Entry<Long, Boolean> approval : approvals.entrySet()) {
+            Booking booking = bookings.get(approval.getKey());
+            if (booking == null) {
+                errors.put(approval.getKey(), "Booking not found!");
+            } else if (booking.getStatus() != Status.WAITING) {
+                errors.put(approval.getKey(), "booking has been already approved/rejected");
+            } else if (Boolean.TRUE.equals(approval.getValue())) {
+                toApprove.add(booking);
+            } else {
+                toReject.add(booking.getId());
+            }
+        }
+
+        if (!toReject.isEmpty()) {
+            bookingRepository.updateWaitingStatus(toReject, Status.REJECTED);
+        }
+        Set<Long> itemIds = toApprove.stream().map(booking -> booking.getItem().getId()).collect(Collectors.toSet());
+        Map<Long, Status> statuses = intervalIndex.locked(itemIds, () -> {
+            List<Booking> approvable = new ArrayList<>();
+            for (Booking booking : toApprove) {
+                if (intervalIndex.overlaps(booking.getItem().getId(), booking.getStart(), booking.getEnd())) {
+                    errors.put(booking.getId(), "Item is already booked for these dates!");
+                } else {
+                    intervalIndex.reserve(booking);
+                    approvable.add(booking);
+                }
+            }
+            if (!approvable.isEmpty()) {
+                bookingRepository.updateWaitingStatus(approvable.stream().map(Booking::getId).collect(Collectors.toList()),
+                                                      Status.APPROVED);
+            }
+            Map<Long, Status> current = bookingRepository.findAllByIdIn(bookings.keySet())
+                                                         .stream()
+                                                         .collect(Collectors.toMap(BookingStatusView::getId,
+                                                                                   BookingStatusView::getStatus));
+            for (Booking booking : approvable) {
+                if (current.get(booking.getId()) != Status.APPROVED) {
+                    intervalIndex.remove(booking);
+                }
+            }
+            return current;
+        });
+        itemSummaryUpdater.refresh(itemIds);
+
+        for (Booking booking : bookings.values()) {
+            Status status = statuses.get(booking.getId());
+            if (!errors.containsKey(booking.getId()) && status != booking.getStatus()) {
+                publish(userId, BookingEvent.STATUS_CHANGED, BookingEvent.of(booking, status));
+            }
+        }
+
+        return approvals.keySet()
+                        .stream()
+                        .map(id -> BookingDecisionResult.builder()
+                                                        .bookingId(id)
+                                                        .status(statuses.get(id))
+                                                        .error(errors.get(id))
+                                                        .build())
+                        .collect(Collectors.toList());
+    }
+
+    /**
+     * Expires one batch of overdue WAITING bookings, oldest start first, and sends the expired ones through the same
+     * summary refresh, cache invalidation, outbox and SSE path as an owner's rejection. Another instance may have
+     * picked the same batch, so the rows are updated one at a time in batch order and only those this transaction
+     * changed are reported; a row the other instance expired first updates nothing here once its lock is released.
+     */
+    @Override
+    @Transactional
+    public int expireOverdue(LocalDateTime now, int limit) {
+        List<Booking> overdue = bookingRepository.findOverdueWaiting(now, PageRequest.of(0, limit));
+        List<Booking> expired = overdue.stream()
+                                       .filter(this::expireWaiting)
+                                       .collect(Collectors.toList());
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        itemSummaryUpdater.refresh(expired.stream().map(booking -> booking.getItem().getId()).collect(Collectors.toSet()));
+        for (Booking booking : expired) {
+            publish(booking.getItem().getOwner(), BookingEvent.STATUS_CHANGED, BookingEvent.of(booking, Status.EXPIRED));
+        }
+        return expired.size();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SseEmitter subscribeOwner(Long userId) {
+        checkUserId(userId);
+        return eventRegistry.subscribe(userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BookingSummary getSummaryByUserId(Long userId) {
+        checkUserId(userId);
+        return summaryCache.booker(userId, id -> bookingRepository.findSummaryByBookerId(id, LocalDateTime.now()));
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public BookingSummary getSummaryByOwnerId(Long userId) {
+        checkUserId(userId);
+        return summaryCache.owner(userId, id -> bookingRepository.findSummaryByItemOwner(id, LocalDateTime.now()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Booking getBookingById(Long userId, Long bookingId) {
         Booking booking = bookingRepository.findById(bookingId)
                                            .orElseThrow(() -> new BookingNotFoundException("Booking not found!"));
@@ -102,55 +292,100 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Booking> getAllByUserId(Integer from, Integer size, Long userId, State state) {
-        if (userService.getUser(userId) == null) {
-            throw new UserNotFoundException("User not found!");
+        checkUserId(userId);
+        List<Booking> bookings = bookingRepository.findBookerFeed(userId, state, LocalDateTime.now(),
+                                                                  PageRequest.of(from / size, size));
+        return checkBookerHasBookings(bookings, userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Booking> getAllByOwnerId(Integer from, Integer size, Long userId, State state) {
+        checkUserId(userId);
+        List<Booking> bookings = bookingRepository.findOwnerFeed(userId, state, LocalDateTime.now(),
+                                                                 PageRequest.of(from / size, size));
+        return checkOwnerHasBookings(bookings, userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Booking> getAllByUserIdAfter(PageCursor after, Integer size, Long userId, State state) {
+        checkUserId(userId);
+        List<Booking> bookings = bookingRepository.findBookerFeedAfter(userId, state, LocalDateTime.now(), after, size);
+        return checkBookerHasBookings(bookings, userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Booking> getAllByOwnerIdAfter(PageCursor after, Integer size, Long userId, State state) {
+        checkUserId(userId);
+        List<Booking> bookings = bookingRepository.findOwnerFeedAfter(userId, state, LocalDateTime.now(), after, size);
+        return checkOwnerHasBookings(bookings, userId);
+    }
+
+    private void checkCanBook(Item item, Long bookerId, BookingDto booking) {
+        if (item.getOwner().equals(bookerId)) {
+            throw new UserNotFoundException("Owner can not book his item!");
         }
 
-        List<Booking> bookings = bookingRepository.findAllByBookerId(userId, PageRequest.of(from / size, size,
-                                                                     Sort.by(Sort.Direction.DESC, "start")));
-        if (bookings.isEmpty()) {
-            throw new BookingException("User does not have bookings!");
+        if (!item.isAvailable()) {
+            throw new BookingException("Item is not available!");
+        }
+
+        if (booking.getStart() == null || booking.getEnd() == null) {
+            throw new BookingException("Invalid booking period!");
         }
 
-        return filterBookingsByState(bookings, state);
+        if (booking.getEnd().isBefore(booking.getStart()) ||
+            booking.getEnd().isBefore(LocalDateTime.now())) {
+            throw new BookingException("Invalid end time of booking!");
+        }
+
+        if (booking.getStart().isBefore(LocalDateTime.now())) {
+            throw new BookingException("Invalid start time of booking!");
+        }
     }
 
-    @Override
-    public List<Booking> getAllByOwnerId(Integer from, Integer size, Long userId, State state) {
+    private void checkNotOverlapping(Booking booking) {
+        if (intervalIndex.overlaps(booking.getItem().getId(), booking.getStart(), booking.getEnd())) {
+            throw new BookingException("Item is already booked for these dates!");
+        }
+    }
+
+    /**
+     * The start bound lets PostgreSQL prune to the booking's partition. It is a one-second window rather than an
+     * equality because a booking saved in this transaction still carries the nanoseconds the column dropped.
+     */
+    private boolean expireWaiting(Booking booking) {
+        LocalDateTime from = booking.getStart().truncatedTo(ChronoUnit.SECONDS);
+        return bookingRepository.expireWaiting(booking.getId(), from, from.plusSeconds(1)) == 1;
+    }
+
+    private void publish(long ownerId, String name, BookingEvent event) {
+        AfterCommit.run(() -> summaryCache.invalidate(event.getBookerId(), ownerId));
+        outbox.append(OutboxEvent.BOOKING, event.getBookingId(), name, event);
+        eventRegistry.publish(ownerId, name, event);
+    }
+
+    private void checkUserId(Long userId) {
         if (userService.getUser(userId) == null) {
             throw new UserNotFoundException("User not found!");
         }
+    }
 
-        List<Booking> bookings = bookingRepository.findBookingsByOwnerId(userId, PageRequest.of(from / size, size,
-                                                                         Sort.by(Sort.Direction.DESC, "start")));
-        if (bookings.isEmpty()) {
+    private List<Booking> checkBookerHasBookings(List<Booking> bookings, Long userId) {
+        if (bookings.isEmpty() && !bookingRepository.existsByBookerId(userId)) {
             throw new BookingException("User does not have bookings!");
         }
-
-        return filterBookingsByState(bookings, state);
+        return bookings;
     }
 
-    private List<Booking> filterBookingsByState(List<Booking> bookings, State state) {
-        switch (state) {
-            case CURRENT:
-                return bookings.stream().filter(booking -> booking.getStart().isBefore(LocalDateTime.now()) &&
-                        booking.getEnd().isAfter(LocalDateTime.now())).collect(Collectors.toList());
-            case PAST:
-                return bookings.stream().filter(booking -> booking.getEnd().isBefore(LocalDateTime.now()))
-                               .collect(Collectors.toList());
-            case FUTURE:
-                return bookings.stream().filter(booking -> booking.getStart().isAfter(LocalDateTime.now()))
-                               .collect(Collectors.toList());
-            case WAITING:
-                return bookings.stream().filter(booking -> booking.getStatus().equals(Status.WAITING))
-                               .collect(Collectors.toList());
-            case REJECTED:
-                return bookings.stream().filter(booking -> booking.getStatus().equals(Status.REJECTED))
-                               .collect(Collectors.toList());
-            default:
+    private List<Booking> checkOwnerHasBookings(List<Booking> bookings, Long userId) {
+        if (bookings.isEmpty() && !bookingRepository.existsByItemOwner(userId)) {
+            throw new BookingException("User does not have bookings!");
         }
-
         return bookings;
     }
 }
\ No newline at end of file
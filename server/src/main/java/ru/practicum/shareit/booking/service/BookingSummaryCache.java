@@ -0,0 +1,33 @@
+package ru.practicum.shareit.booking.service;
+
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingSummary;
+import ru.practicum.shareit.cache.ExpiringCache;
+
+@Component
+public class BookingSummaryCache {
+    private final ExpiringCache<Long, BookingSummary> bookers;
+    private final ExpiringCache<Long, BookingSummary> owners;
+
+    public BookingSummaryCache(@Value("${shareit.booking.summary.ttl-ms:5000}") long ttlMillis,
+                               @Value("${shareit.booking.summary.max-users:10000}") int maxUsers) {
+        this.bookers = new ExpiringCache<>(ttlMillis, maxUsers);
+        this.owners = new ExpiringCache<>(ttlMillis, maxUsers);
+    }
+
+    public BookingSummary booker(long userId, Function<Long, BookingSummary> loader) {
+        return bookers.get(userId, loader);
+    }
+
+    public BookingSummary owner(long userId, Function<Long, BookingSummary> loader) {
+        return owners.get(userId, loader);
+    }
+
+    public void invalidate(long bookerId, long ownerId) {
+        bookers.invalidate(bookerId);
+        owners.invalidate(ownerId);
+    }
+}
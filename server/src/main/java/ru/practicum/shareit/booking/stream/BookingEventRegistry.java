@@ -0,0 +1,183 @@
+package ru.practicum.shareit.booking.stream;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingEvent;
+import ru.practicum.shareit.transaction.AfterCommit;
+
+@Component
+public class BookingEventRegistry {
+    private final Map<Long, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final ExecutorService dispatcher;
+    private final ScheduledExecutorService watchdog;
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final long writeTimeoutNanos;
+
+    public BookingEventRegistry(@Value("${shareit.booking.stream.threads:4}") int threads,
+                                @Value("${shareit.booking.stream.buffer-size:64}") int bufferSize,
+                                @Value("${shareit.booking.stream.timeout-ms:1800000}") long timeoutMs,
+                                @Value("${shareit.booking.stream.write-timeout-ms:5000}") long writeTimeoutMs) {
+        this.dispatcher = Executors.newFixedThreadPool(threads);
+        this.watchdog = Executors.newSingleThreadScheduledExecutor();
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMs);
+        long period = Math.max(1, writeTimeoutMs / 2);
+        watchdog.scheduleWithFixedDelay(this::dropStuck, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe(long ownerId) {
+        Subscription subscription = new Subscription(ownerId, createEmitter(timeoutMs));
+        subscriptions.compute(ownerId, (id, owned) -> {
+            Set<Subscription> updated = owned == null ? ConcurrentHashMap.newKeySet() : owned;
+            updated.add(subscription);
+            return updated;
+        });
+        subscription.emitter.onCompletion(() -> unsubscribe(subscription));
+        subscription.emitter.onTimeout(() -> drop(subscription));
+        subscription.emitter.onError(error -> drop(subscription));
+        return subscription.emitter;
+    }
+
+    public int subscriberCount(long ownerId) {
+        Set<Subscription> owned = subscriptions.get(ownerId);
+        return owned == null ? 0 : owned.size();
+    }
+
+    public void publish(long ownerId, String name, BookingEvent event) {
+        AfterCommit.run(() -> deliver(ownerId, name, event));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watchdog.shutdownNow();
+        dispatcher.shutdownNow();
+        subscriptions.values().forEach(owned -> owned.forEach(subscription -> subscription.emitter.complete()));
+        subscriptions.clear();
+    }
+
+    protected SseEmitter createEmitter(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+
+    private void deliver(long ownerId, String name, BookingEvent event) {
+        Set<Subscription> owned = subscriptions.get(ownerId);
+        if (owned == null) {
+            return;
+        }
+        for (Subscription subscription : owned) {
+            if (subscription.buffer.offer(SseEmitter.event().name(name).data(event))) {
+                schedule(subscription);
+            } else {
+                drop(subscription);
+            }
+        }
+    }
+
+    private void schedule(Subscription subscription) {
+        if (subscription.draining.compareAndSet(false, true)) {
+            dispatcher.execute(() -> drain(subscription));
+        }
+    }
+
+    private void drain(Subscription subscription) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while ((event = subscription.buffer.poll()) != null) {
+                subscription.sending();
+                try {
+                    subscription.emitter.send(event);
+                } finally {
+                    subscription.sent();
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            drop(subscription);
+            return;
+        } finally {
+            subscription.draining.set(false);
+        }
+        if (!subscription.buffer.isEmpty()) {
+            schedule(subscription);
+        }
+    }
+
+    /**
+     * A client that stops reading blocks its write, and with it one of the dispatcher threads. Writes that take
+     * longer than the write timeout get interrupted and their subscription dropped, so the thread is handed back.
+     */
+    private void dropStuck() {
+        long now = System.nanoTime();
+        for (Set<Subscription> owned : subscriptions.values()) {
+            for (Subscription subscription : owned) {
+                if (subscription.interruptIfStuck(now, writeTimeoutNanos)) {
+                    drop(subscription);
+                }
+            }
+        }
+    }
+
+    private void drop(Subscription subscription) {
+        if (unsubscribe(subscription)) {
+            subscription.buffer.clear();
+            subscription.emitter.complete();
+        }
+    }
+
+    private boolean unsubscribe(Subscription subscription) {
+        AtomicBoolean removed = new AtomicBoolean();
+        subscriptions.computeIfPresent(subscription.ownerId, (id, owned) -> {
+            removed.set(owned.remove(subscription));
+            return owned.isEmpty() ? null : owned;
+        });
+        return removed.get();
+    }
+
+    private final class Subscription {
+        private final long ownerId;
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private Thread sender;
+        private long sendingSince;
+
+        private Subscription(long ownerId, SseEmitter emitter) {
+            this.ownerId = ownerId;
+            this.emitter = emitter;
+        }
+
+        private synchronized void sending() {
+            sender = Thread.currentThread();
+            sendingSince = System.nanoTime();
+        }
+
+        private synchronized void sent() {
+            sender = null;
+            // the watchdog interrupts only while holding this lock, so a pending interrupt belongs to this send
+            Thread.interrupted();
+        }
+
+        private synchronized boolean interruptIfStuck(long now, long timeoutNanos) {
+            if (sender == null || now - sendingSince < timeoutNanos) {
+                return false;
+            }
+            sender.interrupt();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+public class ExpiringCache<K, V> {
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxSize;
+    private final LongSupplier clock;
+
+    public ExpiringCache(long ttlMillis, int maxSize) {
+        this(ttlMillis, maxSize, System::nanoTime);
+    }
+
+    public ExpiringCache(long ttlMillis, int maxSize, LongSupplier clock) {
+        this.ttlNanos = ttlMillis * 1_000_000;
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    public V get(K key, Function<K, V> loader) {
+        long now = clock.getAsLong();
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.expiresAt - now > 0) {
+            return entry.value;
+        }
+        V value = loader.apply(key);
+        if (entries.size() >= maxSize) {
+            evictExpired(now);
+        }
+        if (entries.size() < maxSize) {
+            entries.put(key, new Entry<>(value, now + ttlNanos));
+        }
+        return value;
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evictExpired(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt - now <= 0);
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
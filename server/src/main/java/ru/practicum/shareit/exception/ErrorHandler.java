@@ -1,6 +1,7 @@
 package ru.practicum.shareit.exception;
 
 import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -14,9 +15,23 @@ public class ErrorHandler {
         return new ErrorResponse(e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleIdempotencyKeyException(final IdempotencyKeyException e) {
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleOptimisticLockingFailureException(final OptimisticLockingFailureException e) {
+        return new ErrorResponse("Entity was modified concurrently, please retry!");
+    }
+
     @ExceptionHandler(value = { InvalidItemRequestException.class,
                                 InvalidEmailException.class,
                                 InvalidCommentDateException.class,
+                                InvalidCursorException.class,
+                                InvalidPeriodException.class,
                                 BookingException.class,
                                 ConstraintViolationException.class })
     @ResponseStatus(HttpStatus.BAD_REQUEST)
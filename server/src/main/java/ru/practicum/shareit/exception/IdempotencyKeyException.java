@@ -0,0 +1,7 @@
+package ru.practicum.shareit.exception;
+
+public class IdempotencyKeyException extends RuntimeException {
+    public IdempotencyKeyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.idempotency;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class IdempotencyRecord {
+    String fingerprint;
+    String response;
+}
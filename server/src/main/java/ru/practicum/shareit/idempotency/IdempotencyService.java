@@ -0,0 +1,82 @@
+package ru.practicum.shareit.idempotency;
+
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import ru.practicum.shareit.exception.IdempotencyKeyException;
+
+@Service
+public class IdempotencyService {
+    private final IdempotencyStore store;
+    private final ObjectMapper mapper;
+    private final ObjectMapper canonicalMapper;
+
+    public IdempotencyService(IdempotencyStore store, ObjectMapper mapper) {
+        this.store = store;
+        this.mapper = mapper;
+        this.canonicalMapper = mapper.copy()
+                                     .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+                                     .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+    }
+
+    public <T> T execute(String scope, String key, Object request, Class<T> type, Supplier<T> action) {
+        if (key == null) {
+            return action.get();
+        }
+        String storeKey = scope + ":" + key;
+        String fingerprint = fingerprint(request);
+        IdempotencyRecord existing = store.reserve(storeKey, fingerprint);
+        if (existing != null) {
+            return replay(existing, fingerprint, type);
+        }
+
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            store.release(storeKey);
+            throw e;
+        }
+        store.complete(storeKey, write(result));
+        return result;
+    }
+
+    private <T> T replay(IdempotencyRecord existing, String fingerprint, Class<T> type) {
+        if (!existing.getFingerprint().equals(fingerprint)) {
+            throw new IdempotencyKeyException("Idempotency-Key was already used for another request!");
+        }
+        if (existing.getResponse() == null) {
+            throw new IdempotencyKeyException("Request with this Idempotency-Key is still in progress!");
+        }
+        try {
+            return mapper.readValue(existing.getResponse(), type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response can not be read", e);
+        }
+    }
+
+    /**
+     * Hashes the request as JSON with sorted keys, so the fingerprint follows the body the client sent rather than
+     * the field order or toString of the DTO.
+     */
+    private String fingerprint(Object request) {
+        try {
+            return DigestUtils.md5DigestAsHex(canonicalMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Request can not be fingerprinted", e);
+        }
+    }
+
+    private String write(Object result) {
+        try {
+            return mapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response can not be stored", e);
+        }
+    }
+}
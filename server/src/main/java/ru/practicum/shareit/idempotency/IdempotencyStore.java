@@ -0,0 +1,14 @@
+package ru.practicum.shareit.idempotency;
+
+public interface IdempotencyStore {
+    /**
+     * Reserves the key for the caller. Returns null when the reservation succeeded,
+     * otherwise the record already stored for the key; its response is null while
+     * the first request is still running.
+     */
+    IdempotencyRecord reserve(String key, String fingerprint);
+
+    void complete(String key, String response);
+
+    void release(String key);
+}
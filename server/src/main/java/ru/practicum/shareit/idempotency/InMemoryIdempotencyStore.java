@@ -0,0 +1,75 @@
+package ru.practicum.shareit.idempotency;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "shareit.idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private final long ttlNanos;
+    private final int maxSize;
+
+    public InMemoryIdempotencyStore(@Value("${shareit.idempotency.ttl-ms:86400000}") long ttlMillis,
+                                    @Value("${shareit.idempotency.max-keys:100000}") int maxSize) {
+        this.ttlNanos = ttlMillis * 1_000_000;
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public synchronized IdempotencyRecord reserve(String key, String fingerprint) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt - now > 0) {
+            return new IdempotencyRecord(entry.record.getFingerprint(), entry.record.getResponse());
+        }
+        // Entries stay in insertion order, which is also expiry order, so evict can stop at the first live one.
+        entries.remove(key);
+        evict(now);
+        entries.put(key, new Entry(new IdempotencyRecord(fingerprint, null), now + ttlNanos));
+        return null;
+    }
+
+    @Override
+    public synchronized void complete(String key, String response) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.record.setResponse(response);
+        }
+    }
+
+    @Override
+    public synchronized void release(String key) {
+        entries.remove(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void evict(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            if (eldest.expiresAt - now > 0 && entries.size() < maxSize) {
+                return;
+            }
+            iterator.remove();
+        }
+    }
+
+    private static final class Entry {
+        private final IdempotencyRecord record;
+        private final long expiresAt;
+
+        private Entry(IdempotencyRecord record, long expiresAt) {
+            this.record = record;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
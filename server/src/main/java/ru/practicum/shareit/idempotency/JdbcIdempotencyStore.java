@@ -0,0 +1,76 @@
+package ru.practicum.shareit.idempotency;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps keys in the idempotency_keys table. A reservation holds the key for the lease only: if the instance running
+ * the request dies before it completes or releases the key, the key can be reserved again once the lease is over.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.idempotency.store", havingValue = "jdbc")
+public class JdbcIdempotencyStore implements IdempotencyStore {
+    private static final String EXPIRED = "(created < ? OR in_progress_until < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long ttlMillis;
+    private final long leaseMillis;
+
+    public JdbcIdempotencyStore(JdbcTemplate jdbcTemplate,
+                                @Value("${shareit.idempotency.ttl-ms:86400000}") long ttlMillis,
+                                @Value("${shareit.idempotency.lease-ms:60000}") long leaseMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttlMillis = ttlMillis;
+        this.leaseMillis = leaseMillis;
+    }
+
+    @Override
+    public IdempotencyRecord reserve(String key, String fingerprint) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idempotency_key = ? AND " + EXPIRED,
+                            key, Timestamp.valueOf(expiredBefore(now)), Timestamp.valueOf(now));
+        try {
+            jdbcTemplate.update("INSERT INTO idempotency_keys " +
+                                "(idempotency_key, fingerprint, created, in_progress_until) VALUES (?, ?, ?, ?)",
+                                key, fingerprint, Timestamp.valueOf(now),
+                                Timestamp.valueOf(now.plusNanos(leaseMillis * 1_000_000)));
+            return null;
+        } catch (DuplicateKeyException e) {
+            List<IdempotencyRecord> records = jdbcTemplate.query(
+                    "SELECT fingerprint, response FROM idempotency_keys WHERE idempotency_key = ?",
+                    (rs, rowNum) -> new IdempotencyRecord(rs.getString("fingerprint"), rs.getString("response")),
+                    key);
+            return records.isEmpty() ? new IdempotencyRecord(fingerprint, null) : records.get(0);
+        }
+    }
+
+    @Override
+    public void complete(String key, String response) {
+        jdbcTemplate.update("UPDATE idempotency_keys SET response = ?, in_progress_until = NULL " +
+                            "WHERE idempotency_key = ?", response, key);
+    }
+
+    @Override
+    public void release(String key) {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idempotency_key = ?", key);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.idempotency.sweep-delay-ms:600000}")
+    public int sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE " + EXPIRED,
+                                   Timestamp.valueOf(expiredBefore(now)), Timestamp.valueOf(now));
+    }
+
+    private LocalDateTime expiredBefore(LocalDateTime now) {
+        return now.minusNanos(ttlMillis * 1_000_000);
+    }
+}
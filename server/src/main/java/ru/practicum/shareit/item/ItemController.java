@@ -1,7 +1,13 @@
 package ru.practicum.shareit.item;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -11,12 +17,15 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import lombok.AllArgsConstructor;
 import ru.practicum.shareit.booking.dto.CommentDto;
+import ru.practicum.shareit.idempotency.IdempotencyService;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemAvailability;
 import ru.practicum.shareit.item.service.ItemService;
 
 @RestController
@@ -24,7 +33,9 @@ import ru.practicum.shareit.item.service.ItemService;
 @RequestMapping("/items")
 public class ItemController {
     private final ItemService service;
+    private final IdempotencyService idempotency;
     private final String header = "X-Sharer-User-Id";
+    private final String idempotencyHeader = "Idempotency-Key";
 
     @PostMapping
     public Item addItem(@RequestBody ItemDto item,
@@ -35,14 +46,35 @@ public class ItemController {
     @GetMapping
     public List<Item> findAllByUserId(@RequestParam Integer from,
                                       @RequestParam Integer size,
-                                      @RequestHeader(header) Long userId) {
-        return service.findAllByUserId(from, size, userId);
+                                      @RequestHeader(header) Long userId,
+                                      @RequestParam(defaultValue = "20") Integer commentsSize) {
+        return service.findAllByUserId(from, size, userId, commentsSize);
     }
 
     @GetMapping("/{itemId}")
     public Item findItemById(@RequestHeader(header) Long userId,
-                             @PathVariable Long itemId) {
-        return service.findItemById(userId, itemId);
+                             @PathVariable Long itemId,
+                             @RequestParam(defaultValue = "0") Integer commentsFrom,
+                             @RequestParam(defaultValue = "20") Integer commentsSize) {
+        return service.findItemById(userId, itemId, commentsFrom, commentsSize);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<ItemAvailability> getAvailability(@PathVariable Long itemId,
+                                                            @RequestParam @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime from,
+                                                            @RequestParam @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime to,
+                                                            WebRequest request) {
+        String etag = service.getAvailabilityVersion(itemId, from, to);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                 .cacheControl(CacheControl.noCache())
+                                 .eTag(etag)
+                                 .build();
+        }
+        return ResponseEntity.ok()
+                             .cacheControl(CacheControl.noCache())
+                             .eTag(etag)
+                             .body(service.getAvailability(itemId, from, to));
     }
 
     @GetMapping("/search")
@@ -52,6 +84,12 @@ public class ItemController {
         return service.findAllByText(from, size, text);
     }
 
+    @GetMapping("/suggest")
+    public List<String> suggest(@RequestParam String prefix,
+                                @RequestParam(defaultValue = "10") Integer size) {
+        return service.suggest(prefix, size);
+    }
+
     @PatchMapping("/{itemId}")
     public Item updateItem(@RequestHeader(header) Long userId,
                            @PathVariable Long itemId,
@@ -61,8 +99,10 @@ public class ItemController {
 
     @PostMapping("/{itemId}/comment")
     public Comment addComment(@RequestHeader(header) Long userId,
+                              @RequestHeader(value = idempotencyHeader, required = false) String idempotencyKey,
                               @PathVariable Long itemId,
                               @RequestBody CommentDto comment) {
-        return service.addComment(userId, itemId, comment);
+        return idempotency.execute("comments:" + userId + ":" + itemId, idempotencyKey, comment, Comment.class,
+                                   () -> service.addComment(userId, itemId, comment));
     }
 }
\ No newline at end of file
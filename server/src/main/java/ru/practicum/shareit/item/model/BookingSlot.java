@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.model;
+
+import java.time.LocalDateTime;
+
+import ru.practicum.shareit.booking.model.Status;
+
+public interface BookingSlot {
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+
+    Status getStatus();
+}
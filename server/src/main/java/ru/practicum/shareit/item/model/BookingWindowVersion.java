@@ -0,0 +1,9 @@
+package ru.practicum.shareit.item.model;
+
+public interface BookingWindowVersion {
+    Long getBookings();
+
+    Long getMaxId();
+
+    Long getVersionSum();
+}
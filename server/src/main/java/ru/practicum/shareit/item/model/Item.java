@@ -1,9 +1,13 @@
 package ru.practicum.shareit.item.model;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import javax.persistence.*;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -15,6 +19,9 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 @Table(name = "items", schema = "public")
+@SecondaryTable(name = "item_booking_summary", schema = "public", pkJoinColumns = @PrimaryKeyJoinColumn(name = "item_id"))
+@org.hibernate.annotations.Table(appliesTo = "item_booking_summary", optional = true, inverse = true)
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Item {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -35,10 +42,32 @@ public class Item {
     @Column(name = "request_id", nullable = false)
     Long requestId;
 
+    @Version
+    Long version;
+
+    @JsonIgnore
+    @Column(table = "item_booking_summary", name = "last_booking_id", insertable = false, updatable = false)
+    Long lastBookingId;
+    @JsonIgnore
+    @Column(table = "item_booking_summary", name = "last_booker_id", insertable = false, updatable = false)
+    Long lastBookerId;
+    @JsonIgnore
+    @Column(table = "item_booking_summary", name = "next_booking_id", insertable = false, updatable = false)
+    Long nextBookingId;
+    @JsonIgnore
+    @Column(table = "item_booking_summary", name = "next_booker_id", insertable = false, updatable = false)
+    Long nextBookerId;
+    @JsonIgnore
+    @Column(table = "item_booking_summary", name = "next_start", insertable = false, updatable = false)
+    LocalDateTime nextBookingStart;
+
     @Transient
     BookingInfo lastBooking;
     @Transient
     BookingInfo nextBooking;
     @Transient
     List<Comment> comments;
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    List<RequestMatch> requestCandidates;
 }
\ No newline at end of file
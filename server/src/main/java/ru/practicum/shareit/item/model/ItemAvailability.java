@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ItemAvailability {
+    private Long itemId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private List<TimeSlot> free;
+    private List<TimeSlot> occupied;
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.model;
+
+import java.time.LocalDateTime;
+
+public interface ItemBooking {
+    Long getItemId();
+
+    Long getId();
+
+    Long getBookerId();
+
+    LocalDateTime getStart();
+}
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.item.model;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "item_booking_summary", schema = "public")
+public class ItemBookingSummary {
+    @Id
+    @Column(name = "item_id")
+    Long itemId;
+
+    @Column(name = "last_booking_id")
+    Long lastBookingId;
+
+    @Column(name = "last_booker_id")
+    Long lastBookerId;
+
+    @Column(name = "next_booking_id")
+    Long nextBookingId;
+
+    @Column(name = "next_booker_id")
+    Long nextBookerId;
+
+    @Column(name = "next_start")
+    LocalDateTime nextStart;
+}
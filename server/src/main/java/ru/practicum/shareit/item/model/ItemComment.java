@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.model;
+
+import java.time.LocalDateTime;
+
+public interface ItemComment {
+    Long getId();
+
+    String getText();
+
+    String getAuthorName();
+
+    Long getAuthorId();
+
+    Long getItemId();
+
+    LocalDateTime getCreated();
+}
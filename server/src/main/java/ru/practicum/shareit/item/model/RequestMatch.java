@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class RequestMatch {
+    private Long requestId;
+    private String description;
+    private double score;
+}
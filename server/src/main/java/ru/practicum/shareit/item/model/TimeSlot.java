@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.model;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.model.Status;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TimeSlot {
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private Status status;
+}
@@ -1,11 +1,29 @@
 package ru.practicum.shareit.item.repository;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.ItemComment;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findCommentsByItemId(Long itemId);
+    @Query("SELECT new ru.practicum.shareit.item.model.Comment(c.id, c.text, u.name, c.authorId, c.itemId, c.created) " +
+            "FROM Comment c JOIN User u ON u.id = c.authorId " +
+            "WHERE c.itemId = :itemId " +
+            "ORDER BY c.created, c.id")
+    List<Comment> findCommentsWithAuthorByItemId(long itemId, PageRequest page);
+
+    @Query(value = "SELECT ranked.id AS id, ranked.text AS text, u.name AS authorName, " +
+            "ranked.author_id AS authorId, ranked.item_id AS itemId, ranked.created AS created " +
+            "FROM (SELECT c.id, c.text, c.author_id, c.item_id, c.created, " +
+            "ROW_NUMBER() OVER (PARTITION BY c.item_id ORDER BY c.created, c.id) AS rn " +
+            "FROM comments c WHERE c.item_id IN (:itemIds)) ranked " +
+            "JOIN users u ON u.id = ranked.author_id " +
+            "WHERE ranked.rn <= :limit " +
+            "ORDER BY ranked.created, ranked.id", nativeQuery = true)
+    List<ItemComment> findFirstCommentsWithAuthorByItemIdIn(Collection<Long> itemIds, int limit);
 }
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.item.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import javax.persistence.LockModeType;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long>,
+        ItemBookingSummaryRepositoryCustom {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<ItemBookingSummary> findAllByItemIdInOrderByItemId(Collection<Long> itemIds);
+
+    @Query("SELECT s.itemId FROM ItemBookingSummary s WHERE s.nextStart <= :now ORDER BY s.itemId")
+    List<Long> findStaleItemIds(LocalDateTime now, Pageable page);
+
+    @Query(value = "SELECT DISTINCT b.item_id FROM bookings b WHERE NOT EXISTS " +
+            "(SELECT 1 FROM item_booking_summary s WHERE s.item_id = b.item_id) ORDER BY b.item_id",
+            nativeQuery = true)
+    List<Long> findItemIdsWithoutSummary(Pageable page);
+}
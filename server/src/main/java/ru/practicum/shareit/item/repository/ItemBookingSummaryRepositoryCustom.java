@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item.repository;
+
+import java.util.Collection;
+
+public interface ItemBookingSummaryRepositoryCustom {
+    /**
+     * Inserts an empty summary row for every given item that has none yet and leaves existing rows untouched.
+     */
+    void insertMissing(Collection<Long> itemIds);
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.item.repository;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+public class ItemBookingSummaryRepositoryImpl implements ItemBookingSummaryRepositoryCustom {
+    private static final String POSTGRES_INSERT = "INSERT INTO item_booking_summary (item_id) " +
+            "SELECT id FROM items WHERE id IN (:itemIds) ORDER BY id ON CONFLICT (item_id) DO NOTHING";
+    private static final String H2_MERGE = "MERGE INTO item_booking_summary (item_id) KEY (item_id) " +
+            "SELECT id FROM items WHERE id IN (:itemIds) ORDER BY id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final boolean postgres;
+
+    public ItemBookingSummaryRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate,
+                                            @Value("${spring.sql.init.platform}") String platform) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.postgres = "postgresql".equals(platform);
+    }
+
+    @Override
+    public void insertMissing(Collection<Long> itemIds) {
+        Map<String, Collection<Long>> params = Map.of("itemIds", itemIds);
+        if (postgres) {
+            jdbcTemplate.update(POSTGRES_INSERT, params);
+            return;
+        }
+        try {
+            jdbcTemplate.update(H2_MERGE, params);
+        } catch (DuplicateKeyException e) {
+            // H2 has no ON CONFLICT outside PostgreSQL mode, and a concurrent MERGE of the same key fails
+            // instead of waiting. The row exists either way, and H2 keeps the transaction usable.
+        }
+    }
+}
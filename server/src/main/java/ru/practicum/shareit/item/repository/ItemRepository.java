@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.domain.PageRequest;
@@ -9,12 +10,26 @@ import ru.practicum.shareit.item.model.Item;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
     @Query("SELECT i FROM Item i " +
-            "WHERE UPPER(i.name) LIKE UPPER(concat('%', :text, '%')) " +
-            "OR UPPER(i.description) LIKE UPPER(concat('%', :text, '%')) " +
-            "AND i.available = true")
+            "WHERE i.available = true " +
+            "AND (UPPER(i.name) LIKE UPPER(concat('%', :text, '%')) " +
+            "OR UPPER(i.description) LIKE UPPER(concat('%', :text, '%'))) " +
+            "ORDER BY i.id")
     List<Item> searchItemByText(String text, PageRequest of);
 
+    @Query(value = "SELECT i.*, s.* FROM items i " +
+            "LEFT JOIN item_booking_summary s ON s.item_id = i.id " +
+            "WHERE i.is_available = true " +
+            "AND (i.search_vector @@ plainto_tsquery('simple', :text) " +
+            "OR i.name ILIKE :pattern OR i.description ILIKE :pattern) " +
+            "ORDER BY ts_rank(i.search_vector, plainto_tsquery('simple', :text)) DESC, i.id",
+            nativeQuery = true)
+    List<Item> searchItemByTsQuery(String text, String pattern, PageRequest of);
+
     List<Item> findByOwnerOrderById(long userId, PageRequest of);
 
+    List<Item> findByIdGreaterThanOrderById(long id, PageRequest of);
+
     List<Item> findAllByRequestId(long requestId);
+
+    List<Item> findAllByRequestIdInOrderById(Collection<Long> requestIds);
 }
\ No newline at end of file
@@ -0,0 +1,223 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Arrays;
+
+/**
+ * Id set of one gram. A sparse set keeps a sorted array that only ever grows at the end; ids added below its last
+ * one and ids removed from it are collected in two small sorted arrays and merged in once they outgrow a sixteenth
+ * of it, so editing an old item never shifts the large array. A set holding more than one id in 32 of its range is
+ * kept as a bitmap instead, which takes a bit per id and is updated in place.
+ */
+class IntPostings {
+    private static final int[] EMPTY = new int[0];
+    private static final int MIN_PENDING = 32;
+
+    private int[] ids = EMPTY;
+    private int length;
+    private int[] added = EMPTY;
+    private int addedLength;
+    private int[] removed = EMPTY;
+    private int removedLength;
+    private long[] words;
+    private int size;
+
+    void add(int id) {
+        if (words != null) {
+            if (id >> 6 >= words.length) {
+                words = Arrays.copyOf(words, Math.max((id >> 6) + 1, words.length + (words.length >> 1)));
+            }
+            if ((words[id >> 6] & 1L << id) == 0) {
+                words[id >> 6] |= 1L << id;
+                size++;
+            }
+            return;
+        }
+        int index = Arrays.binarySearch(removed, 0, removedLength, id);
+        if (index >= 0) {
+            removedLength = delete(removed, removedLength, index);
+            size++;
+            return;
+        }
+        if ((length == 0 || ids[length - 1] < id) && (addedLength == 0 || added[addedLength - 1] < id)) {
+            if (length == ids.length) {
+                ids = Arrays.copyOf(ids, length + (length >> 1) + 4);
+            }
+            ids[length++] = id;
+            size++;
+            if (size > 2 * ((id >> 6) + 1)) {
+                toBitmap(id);
+            }
+            return;
+        }
+        if (Arrays.binarySearch(ids, 0, length, id) >= 0) {
+            return;
+        }
+        index = Arrays.binarySearch(added, 0, addedLength, id);
+        if (index < 0) {
+            added = insert(added, addedLength++, -index - 1, id);
+            size++;
+            compactIfFull();
+        }
+    }
+
+    void remove(int id) {
+        if (words != null) {
+            if (id >> 6 < words.length && (words[id >> 6] & 1L << id) != 0) {
+                words[id >> 6] &= ~(1L << id);
+                size--;
+                if (size < words.length) {
+                    toArray();
+                }
+            }
+            return;
+        }
+        int index = Arrays.binarySearch(added, 0, addedLength, id);
+        if (index >= 0) {
+            addedLength = delete(added, addedLength, index);
+            size--;
+            return;
+        }
+        if (length > 0 && ids[length - 1] == id && Arrays.binarySearch(removed, 0, removedLength, id) < 0) {
+            length--;
+            size--;
+            return;
+        }
+        if (Arrays.binarySearch(ids, 0, length, id) < 0) {
+            return;
+        }
+        index = Arrays.binarySearch(removed, 0, removedLength, id);
+        if (index < 0) {
+            removed = insert(removed, removedLength++, -index - 1, id);
+            size--;
+            compactIfFull();
+        }
+    }
+
+    boolean contains(int id) {
+        if (words != null) {
+            return id >> 6 < words.length && (words[id >> 6] & 1L << id) != 0;
+        }
+        return Arrays.binarySearch(added, 0, addedLength, id) >= 0
+                || Arrays.binarySearch(ids, 0, length, id) >= 0
+                && Arrays.binarySearch(removed, 0, removedLength, id) < 0;
+    }
+
+    /**
+     * Returns the smallest id in the set not less than the given one, or -1 if there is none.
+     */
+    int next(int from) {
+        if (words != null) {
+            int word = from >> 6;
+            if (word >= words.length) {
+                return -1;
+            }
+            long bits = words[word] & -1L << from;
+            while (bits == 0) {
+                if (++word == words.length) {
+                    return -1;
+                }
+                bits = words[word];
+            }
+            return (word << 6) + Long.numberOfTrailingZeros(bits);
+        }
+        int i = seek(ids, length, from);
+        while (i < length && Arrays.binarySearch(removed, 0, removedLength, ids[i]) >= 0) {
+            i++;
+        }
+        int j = seek(added, addedLength, from);
+        if (i == length) {
+            return j == addedLength ? -1 : added[j];
+        }
+        return j == addedLength ? ids[i] : Math.min(ids[i], added[j]);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the approximate number of heap bytes held by the set.
+     */
+    long footprint() {
+        long arrays = 4L * (ids.length + added.length + removed.length) + (words == null ? 0 : 8L * words.length);
+        return 64 + arrays;
+    }
+
+    private void compactIfFull() {
+        if (addedLength + removedLength <= Math.max(MIN_PENDING, length >> 4)) {
+            return;
+        }
+        int[] merged = new int[size];
+        int i = 0;
+        int j = 0;
+        int r = 0;
+        int k = 0;
+        while (i < length || j < addedLength) {
+            if (j == addedLength || i < length && ids[i] < added[j]) {
+                if (r < removedLength && removed[r] == ids[i]) {
+                    r++;
+                } else {
+                    merged[k++] = ids[i];
+                }
+                i++;
+            } else {
+                merged[k++] = added[j++];
+            }
+        }
+        ids = merged;
+        length = k;
+        added = EMPTY;
+        addedLength = 0;
+        removed = EMPTY;
+        removedLength = 0;
+        if (length > 0 && size > 2 * ((ids[length - 1] >> 6) + 1)) {
+            toBitmap(ids[length - 1]);
+        }
+    }
+
+    private void toBitmap(int maxId) {
+        long[] bitmap = new long[(maxId >> 6) + 1];
+        for (int id = next(0); id >= 0; id = next(id + 1)) {
+            bitmap[id >> 6] |= 1L << id;
+        }
+        words = bitmap;
+        ids = EMPTY;
+        length = 0;
+        added = EMPTY;
+        addedLength = 0;
+        removed = EMPTY;
+        removedLength = 0;
+    }
+
+    private void toArray() {
+        int[] array = new int[size];
+        int k = 0;
+        for (int id = next(0); id >= 0; id = next(id + 1)) {
+            array[k++] = id;
+        }
+        words = null;
+        ids = array;
+        length = k;
+    }
+
+    private static int seek(int[] array, int length, int id) {
+        int index = Arrays.binarySearch(array, 0, length, id);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static int[] insert(int[] array, int length, int position, int id) {
+        int[] target = length == array.length ? Arrays.copyOf(array, length + (length >> 1) + 4) : array;
+        System.arraycopy(target, position, target, position + 1, length - position);
+        target[position] = id;
+        return target;
+    }
+
+    private static int delete(int[] array, int length, int index) {
+        System.arraycopy(array, index + 1, array, index, length - index - 1);
+        return length - 1;
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.List;
+
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.model.Item;
+
+public interface ItemSearchEngine {
+    List<Item> search(String text, PageRequest page);
+
+    default void onItemSaved(Item item) {
+    }
+}
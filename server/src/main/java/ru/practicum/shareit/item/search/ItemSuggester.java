@@ -0,0 +1,146 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+/**
+ * Keeps at most {@code max-names} distinct item names with the number of available items carrying each one, in a
+ * {@link SuggestionTrie} that holds the {@code top} most popular names under every prefix. Nothing is stored per
+ * item: updates pass the previous state in, and the periodic rebuild corrects any drift from concurrent edits.
+ */
+@Component
+public class ItemSuggester {
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_NAME_LENGTH = 50;
+
+    private final ItemRepository itemRepository;
+    private final int maxNames;
+    private final int top;
+    private SuggestionTrie names;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private List<Item[]> pending;
+    private long scannedUpTo;
+
+    public ItemSuggester(ItemRepository itemRepository,
+                         @Value("${shareit.suggest.max-names:100000}") int maxNames,
+                         @Value("${shareit.suggest.top:10}") int top) {
+        this.itemRepository = itemRepository;
+        this.maxNames = maxNames;
+        this.top = top;
+        this.names = new SuggestionTrie(top);
+    }
+
+    /**
+     * Builds a fresh table outside the lock and swaps it in. Updates that arrive meanwhile still go to the current
+     * table; those for items the scan has already read are also queued and replayed on the fresh table before the
+     * swap. Updates for items the scan has not reached yet are not queued, as the scan will read their new state.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${shareit.suggest.rebuild-delay-ms:3600000}",
+               initialDelayString = "${shareit.suggest.rebuild-delay-ms:3600000}")
+    public synchronized void rebuild() {
+        SuggestionTrie rebuilt = new SuggestionTrie(top);
+        List<Item[]> updates = new ArrayList<>();
+        setPending(updates, 0);
+        try {
+            List<Item> batch = itemRepository.findByIdGreaterThanOrderById(0, PageRequest.of(0, BATCH_SIZE));
+            while (!batch.isEmpty()) {
+                batch.forEach(item -> add(rebuilt, item));
+                long lastId = batch.get(batch.size() - 1).getId();
+                setPending(updates, lastId);
+                batch = itemRepository.findByIdGreaterThanOrderById(lastId, PageRequest.of(0, BATCH_SIZE));
+            }
+            lock.writeLock().lock();
+            try {
+                for (Item[] update : updates) {
+                    apply(rebuilt, update[0], update[1]);
+                }
+                names = rebuilt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            setPending(null, 0);
+        }
+    }
+
+    public void onItemSaved(Item item) {
+        onItemSaved(null, item);
+    }
+
+    public void onItemSaved(@Nullable Item previous, Item item) {
+        lock.writeLock().lock();
+        try {
+            apply(names, previous, item);
+            if (pending != null && item.getId() <= scannedUpTo) {
+                pending.add(new Item[]{previous, item});
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the most popular names starting with the prefix, at most {@code top} of them whatever the size asked.
+     */
+    public List<String> suggest(String prefix, int size) {
+        lock.readLock().lock();
+        try {
+            return names.suggest(prefix.toLowerCase(Locale.ROOT), size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void setPending(List<Item[]> updates, long lastScannedId) {
+        lock.writeLock().lock();
+        try {
+            pending = updates;
+            scannedUpTo = lastScannedId;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(SuggestionTrie names, @Nullable Item previous, Item item) {
+        if (previous != null) {
+            remove(names, previous);
+        }
+        add(names, item);
+    }
+
+    private void add(SuggestionTrie names, Item item) {
+        String name = suggestedName(item);
+        if (name != null) {
+            names.add(name.toLowerCase(Locale.ROOT), name, maxNames);
+        }
+    }
+
+    private static void remove(SuggestionTrie names, Item item) {
+        String name = suggestedName(item);
+        if (name != null) {
+            names.remove(name.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private static String suggestedName(Item item) {
+        if (!item.isAvailable() || item.getName() == null || item.getName().isBlank()) {
+            return null;
+        }
+        String name = item.getName().strip();
+        return name.length() > MAX_NAME_LENGTH ? name.substring(0, MAX_NAME_LENGTH) : name;
+    }
+}
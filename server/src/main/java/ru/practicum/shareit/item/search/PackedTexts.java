@@ -0,0 +1,103 @@
+package ru.practicum.shareit.item.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Normalized item texts stored back to back in one UTF-8 buffer and located by offset and length arrays indexed by
+ * item id. A replaced or removed text stays in the buffer until the garbage outgrows the live texts, and then the
+ * whole buffer is compacted at once.
+ */
+class PackedTexts {
+    private byte[] buffer = new byte[1024];
+    private int end;
+    private int live;
+    private int[] offsets = new int[0];
+    private int[] lengths = new int[0];
+
+    void put(int id, String text) {
+        remove(id);
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (id >= offsets.length) {
+            int capacity = Math.max(id + 1, offsets.length + (offsets.length >> 1));
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        if (end + bytes.length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(end + bytes.length, buffer.length + (buffer.length >> 1)));
+        }
+        System.arraycopy(bytes, 0, buffer, end, bytes.length);
+        offsets[id] = end;
+        lengths[id] = bytes.length;
+        end += bytes.length;
+        live += bytes.length;
+    }
+
+    String get(int id) {
+        if (id >= lengths.length || lengths[id] == 0) {
+            return null;
+        }
+        return new String(buffer, offsets[id], lengths[id], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Checks the text of the item for the UTF-8 encoded query. UTF-8 sequences are self-delimiting, so a byte match
+     * is always a character match.
+     */
+    boolean contains(int id, byte[] query) {
+        if (id >= lengths.length) {
+            return false;
+        }
+        int last = offsets[id] + lengths[id] - query.length;
+        for (int from = offsets[id]; from <= last; from++) {
+            int i = 0;
+            while (i < query.length && buffer[from + i] == query[i]) {
+                i++;
+            }
+            if (i == query.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void remove(int id) {
+        if (id >= lengths.length || lengths[id] == 0) {
+            return;
+        }
+        live -= lengths[id];
+        lengths[id] = 0;
+        if (end - live > live) {
+            compact();
+        }
+    }
+
+    void clear() {
+        buffer = new byte[1024];
+        end = 0;
+        live = 0;
+        offsets = new int[0];
+        lengths = new int[0];
+    }
+
+    /**
+     * Returns the approximate number of heap bytes held by the texts.
+     */
+    long footprint() {
+        return 64 + buffer.length + 4L * (offsets.length + lengths.length);
+    }
+
+    private void compact() {
+        byte[] compacted = new byte[live + (live >> 2) + 1024];
+        int position = 0;
+        for (int id = 0; id < lengths.length; id++) {
+            if (lengths[id] > 0) {
+                System.arraycopy(buffer, offsets[id], compacted, position, lengths[id]);
+                offsets[id] = position;
+                position += lengths[id];
+            }
+        }
+        buffer = compacted;
+        end = position;
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "postgres")
+public class PostgresItemSearchEngine implements ItemSearchEngine {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, PageRequest page) {
+        String pattern = "%" + text.replace("\\", "\\\\")
+                                   .replace("%", "\\%")
+                                   .replace("_", "\\_") + "%";
+        return itemRepository.searchItemByTsQuery(text, pattern, page);
+    }
+}
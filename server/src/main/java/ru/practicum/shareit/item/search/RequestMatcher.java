@@ -0,0 +1,146 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.RequestMatch;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+@Component
+public class RequestMatcher {
+    private static final int BATCH_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final int candidates;
+    private final int maxPostings;
+    private final TermIndex requests = new TermIndex();
+    private final TermIndex items = new TermIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public RequestMatcher(ItemRepository itemRepository,
+                          ItemRequestRepository itemRequestRepository,
+                          @Value("${shareit.matching.candidates:5}") int candidates,
+                          @Value("${shareit.matching.max-postings:5000}") int maxPostings) {
+        this.itemRepository = itemRepository;
+        this.itemRequestRepository = itemRequestRepository;
+        this.candidates = candidates;
+        this.maxPostings = maxPostings;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            requests.clear();
+            items.clear();
+            List<ItemRequest> open = itemRequestRepository.findOpenByIdGreaterThan(0, PageRequest.of(0, BATCH_SIZE));
+            while (!open.isEmpty()) {
+                open.forEach(this::add);
+                open = itemRequestRepository.findOpenByIdGreaterThan(open.get(open.size() - 1).getId(),
+                                                                     PageRequest.of(0, BATCH_SIZE));
+            }
+            List<Item> batch = itemRepository.findByIdGreaterThanOrderById(0, PageRequest.of(0, BATCH_SIZE));
+            while (!batch.isEmpty()) {
+                batch.forEach(this::add);
+                batch = itemRepository.findByIdGreaterThanOrderById(batch.get(batch.size() - 1).getId(),
+                                                                    PageRequest.of(0, BATCH_SIZE));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void onRequestSaved(ItemRequest request) {
+        lock.writeLock().lock();
+        try {
+            add(request);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void onItemSaved(Item item) {
+        lock.writeLock().lock();
+        try {
+            items.remove(item.getId());
+            add(item);
+            if (item.getRequestId() != null) {
+                requests.remove(item.getRequestId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<RequestMatch> matchRequests(Item item) {
+        List<TermIndex.Hit> hits;
+        lock.readLock().lock();
+        try {
+            hits = requests.top(item.getName() + " " + item.getDescription(), item.getOwner(), candidates, maxPostings);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ItemRequest> found = load(itemRequestRepository.findAllById(ids(hits)), ItemRequest::getId);
+        return hits.stream()
+                   .filter(hit -> found.containsKey(hit.getId()))
+                   .map(hit -> RequestMatch.builder()
+                                           .requestId(hit.getId())
+                                           .description(found.get(hit.getId()).getDescription())
+                                           .score(hit.getScore())
+                                           .build())
+                   .collect(Collectors.toList());
+    }
+
+    public List<Item> matchItems(ItemRequest request, int size) {
+        List<TermIndex.Hit> hits;
+        lock.readLock().lock();
+        try {
+            hits = items.top(request.getDescription(), request.getRequestorId(), size, maxPostings);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Item> found = load(itemRepository.findAllById(ids(hits)), Item::getId);
+        return hits.stream()
+                   .map(hit -> found.get(hit.getId()))
+                   .filter(Objects::nonNull)
+                   .collect(Collectors.toList());
+    }
+
+    private void add(ItemRequest request) {
+        requests.put(request.getId(), request.getRequestorId(), request.getDescription());
+    }
+
+    private void add(Item item) {
+        if (item.isAvailable() && item.getName() != null && item.getDescription() != null) {
+            items.put(item.getId(), item.getOwner(), item.getName() + " " + item.getDescription());
+        }
+    }
+
+    private static List<Long> ids(List<TermIndex.Hit> hits) {
+        return hits.stream().map(TermIndex.Hit::getId).collect(Collectors.toList());
+    }
+
+    private static <T> Map<Long, T> load(List<T> rows, Function<T, Long> id) {
+        return rows.stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+}
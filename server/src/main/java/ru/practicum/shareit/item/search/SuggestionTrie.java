@@ -0,0 +1,294 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Path-compressed trie of lowercased names. Every node keeps the {@code top} most popular names below it, ranked by
+ * item count and then by key, so a prefix lookup costs the prefix length plus the size of the answer. A count change
+ * walks the name's path: an increase only moves the name within each node's list, and a decrease that drops it out
+ * of a full list rebuilds that list from the node's children, deepest node first.
+ */
+class SuggestionTrie {
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Suggestion[] NO_SUGGESTIONS = new Suggestion[0];
+    private static final Comparator<Suggestion> RANK = Comparator.comparingInt((Suggestion suggestion) -> suggestion.items)
+                                                                 .reversed()
+                                                                 .thenComparing(suggestion -> suggestion.key);
+
+    private final int top;
+    private final Node root = new Node("");
+    private int size;
+
+    SuggestionTrie(int top) {
+        this.top = top;
+    }
+
+    /**
+     * Counts one more item with the name, unless the name is new and the trie already holds {@code maxNames}.
+     */
+    void add(String key, String name, int maxNames) {
+        List<Node> path = path(key, false);
+        if (path == null || path.get(path.size() - 1).terminal == null) {
+            if (size >= maxNames) {
+                return;
+            }
+            path = path(key, true);
+            path.get(path.size() - 1).terminal = new Suggestion(key, name);
+            size++;
+        }
+        Suggestion suggestion = path.get(path.size() - 1).terminal;
+        suggestion.items++;
+        for (Node node : path) {
+            node.promote(suggestion, top);
+        }
+    }
+
+    void remove(String key) {
+        List<Node> path = path(key, false);
+        if (path == null || path.get(path.size() - 1).terminal == null) {
+            return;
+        }
+        Node last = path.get(path.size() - 1);
+        Suggestion suggestion = last.terminal;
+        if (--suggestion.items <= 0) {
+            last.terminal = null;
+            size--;
+        }
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            node.demote(suggestion, top);
+            if (i > 0 && node.terminal == null) {
+                if (node.children.length == 0) {
+                    path.get(i - 1).removeChild(node);
+                } else if (node.children.length == 1) {
+                    node.absorbChild();
+                }
+            }
+        }
+    }
+
+    List<String> suggest(String prefix, int size) {
+        Suggestion[] best = find(prefix);
+        List<String> names = new ArrayList<>(Math.min(size, best.length));
+        for (int i = 0; i < best.length && i < size; i++) {
+            names.add(best[i].name);
+        }
+        return names;
+    }
+
+    private Suggestion[] find(String prefix) {
+        Node node = root;
+        int depth = 0;
+        while (depth < prefix.length()) {
+            Node child = node.child(prefix.charAt(depth));
+            if (child == null) {
+                return NO_SUGGESTIONS;
+            }
+            int common = common(child.edge, prefix, depth);
+            if (depth + common == prefix.length()) {
+                return child.best;
+            }
+            if (common < child.edge.length()) {
+                return NO_SUGGESTIONS;
+            }
+            node = child;
+            depth += common;
+        }
+        return node.best;
+    }
+
+    /**
+     * Returns the nodes from the root to the one the key ends at, splitting and adding nodes when asked to create
+     * the path, or null if the key ends inside an edge or past the trie.
+     */
+    private List<Node> path(String key, boolean create) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int depth = 0;
+        while (depth < key.length()) {
+            Node child = node.child(key.charAt(depth));
+            if (child == null) {
+                if (!create) {
+                    return null;
+                }
+                child = new Node(key.substring(depth));
+                node.addChild(child);
+            }
+            int common = common(child.edge, key, depth);
+            if (common < child.edge.length()) {
+                if (!create) {
+                    return null;
+                }
+                child = node.split(child, common);
+            }
+            path.add(child);
+            node = child;
+            depth += common;
+        }
+        return path;
+    }
+
+    private static int common(String edge, String key, int from) {
+        int length = 0;
+        while (length < edge.length() && from + length < key.length()
+                && edge.charAt(length) == key.charAt(from + length)) {
+            length++;
+        }
+        return length;
+    }
+
+    private static class Node {
+        private String edge;
+        private Node[] children = NO_CHILDREN;
+        private Suggestion terminal;
+        private Suggestion[] best = NO_SUGGESTIONS;
+
+        private Node(String edge) {
+            this.edge = edge;
+        }
+
+        private Node child(char first) {
+            int index = index(first);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private int index(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                char current = children[middle].edge.charAt(0);
+                if (current < first) {
+                    low = middle + 1;
+                } else if (current > first) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -low - 1;
+        }
+
+        private void addChild(Node child) {
+            int position = -index(child.edge.charAt(0)) - 1;
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, position);
+            grown[position] = child;
+            System.arraycopy(children, position, grown, position + 1, children.length - position);
+            children = grown;
+        }
+
+        private void removeChild(Node child) {
+            int index = index(child.edge.charAt(0));
+            Node[] shrunk = new Node[children.length - 1];
+            System.arraycopy(children, 0, shrunk, 0, index);
+            System.arraycopy(children, index + 1, shrunk, index, children.length - index - 1);
+            children = shrunk;
+        }
+
+        /**
+         * Puts a node for the first {@code length} characters of the child's edge between this node and the child.
+         */
+        private Node split(Node child, int length) {
+            Node middle = new Node(child.edge.substring(0, length));
+            children[index(child.edge.charAt(0))] = middle;
+            child.edge = child.edge.substring(length);
+            middle.children = new Node[]{child};
+            middle.best = child.best.clone();
+            return middle;
+        }
+
+        private void absorbChild() {
+            Node child = children[0];
+            edge = edge + child.edge;
+            children = child.children;
+            terminal = child.terminal;
+            best = child.best;
+        }
+
+        private void promote(Suggestion suggestion, int top) {
+            int index = indexOf(suggestion);
+            if (index < 0) {
+                if (best.length < top) {
+                    best = Arrays.copyOf(best, best.length + 1);
+                } else if (top == 0 || RANK.compare(suggestion, best[top - 1]) >= 0) {
+                    return;
+                }
+                index = best.length - 1;
+                best[index] = suggestion;
+            }
+            while (index > 0 && RANK.compare(best[index], best[index - 1]) < 0) {
+                swap(index, index - 1);
+                index--;
+            }
+        }
+
+        private void demote(Suggestion suggestion, int top) {
+            int index = indexOf(suggestion);
+            if (index < 0) {
+                return;
+            }
+            if (best.length == top) {
+                rank(top);
+                return;
+            }
+            if (suggestion.items <= 0) {
+                Suggestion[] shrunk = new Suggestion[best.length - 1];
+                System.arraycopy(best, 0, shrunk, 0, index);
+                System.arraycopy(best, index + 1, shrunk, index, best.length - index - 1);
+                best = shrunk;
+                return;
+            }
+            while (index < best.length - 1 && RANK.compare(best[index], best[index + 1]) > 0) {
+                swap(index, index + 1);
+                index++;
+            }
+        }
+
+        /**
+         * Rebuilds the list from the name ending here and the children's lists, which already hold the best of
+         * their subtrees.
+         */
+        private void rank(int top) {
+            List<Suggestion> candidates = new ArrayList<>();
+            if (terminal != null) {
+                candidates.add(terminal);
+            }
+            for (Node child : children) {
+                candidates.addAll(Arrays.asList(child.best));
+            }
+            candidates.sort(RANK);
+            best = candidates.subList(0, Math.min(top, candidates.size())).toArray(NO_SUGGESTIONS);
+        }
+
+        private int indexOf(Suggestion suggestion) {
+            for (int i = 0; i < best.length; i++) {
+                if (best[i] == suggestion) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void swap(int i, int j) {
+            Suggestion suggestion = best[i];
+            best[i] = best[j];
+            best[j] = suggestion;
+        }
+    }
+
+    private static class Suggestion {
+        private final String key;
+        private final String name;
+        private int items;
+
+        private Suggestion(String key, String name) {
+            this.key = key;
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+class TermIndex {
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MIN_LENGTH = 3;
+    private static final int STEM_LENGTH = 6;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "the", "and", "for", "with", "need", "want", "looking", "some", "any", "would", "like", "please",
+            "для", "нужна", "нужен", "нужно", "хотел", "хотела", "хочу", "ищу", "что", "как", "или");
+    private static final Comparator<Hit> RANK = Comparator.comparingDouble(Hit::getScore)
+                                                          .thenComparingLong(Hit::getId);
+
+    private final Map<String, LongPostings> postings = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+
+    void put(long id, Long ownerId, String text) {
+        remove(id);
+        Set<String> terms = terms(text);
+        if (terms.isEmpty()) {
+            return;
+        }
+        documents.put(id, new Document(ownerId, terms.toArray(new String[0])));
+        for (String term : terms) {
+            postings.computeIfAbsent(term, key -> new LongPostings()).add(id);
+        }
+    }
+
+    void remove(long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms) {
+            LongPostings list = postings.get(term);
+            list.remove(id);
+            if (list.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    void clear() {
+        postings.clear();
+        documents.clear();
+    }
+
+    int size() {
+        return documents.size();
+    }
+
+    /**
+     * Scores documents by the summed idf of the terms they share with the query. Terms are visited
+     * rarest first and at most {@code maxPostings} entries are read in total, so a query made of
+     * common words costs the same as any other. A posting list that does not fit the remaining
+     * budget is scored over its newest entries only.
+     */
+    List<Hit> top(String text, Long excludedOwnerId, int limit, int maxPostings) {
+        List<LongPostings> lists = new ArrayList<>();
+        for (String term : terms(text)) {
+            LongPostings list = postings.get(term);
+            if (list != null) {
+                lists.add(list);
+            }
+        }
+        lists.sort(Comparator.comparingInt(LongPostings::size));
+        Map<Long, Double> scores = new HashMap<>();
+        int budget = maxPostings;
+        for (LongPostings list : lists) {
+            if (budget == 0) {
+                break;
+            }
+            int scanned = Math.min(list.size(), budget);
+            budget -= scanned;
+            double idf = Math.log(1 + (double) documents.size() / list.size());
+            for (int i = list.size() - scanned; i < list.size(); i++) {
+                scores.merge(list.get(i), idf, Double::sum);
+            }
+        }
+        PriorityQueue<Hit> best = new PriorityQueue<>(RANK);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            Long ownerId = documents.get(entry.getKey()).ownerId;
+            if (excludedOwnerId != null && excludedOwnerId.equals(ownerId)) {
+                continue;
+            }
+            best.add(new Hit(entry.getKey(), entry.getValue()));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<Hit> result = new ArrayList<>(best);
+        result.sort(RANK.reversed());
+        return result;
+    }
+
+    static Set<String> terms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String token : SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (token.length() >= MIN_LENGTH && !STOP_WORDS.contains(token)) {
+                terms.add(token.length() > STEM_LENGTH ? token.substring(0, STEM_LENGTH) : token);
+            }
+        }
+        return terms;
+    }
+
+    static class Hit {
+        private final long id;
+        private final double score;
+
+        Hit(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        long getId() {
+            return id;
+        }
+
+        double getScore() {
+            return score;
+        }
+    }
+
+    private static class Document {
+        private final Long ownerId;
+        private final String[] terms;
+
+        private Document(Long ownerId, String[] terms) {
+            this.ownerId = ownerId;
+            this.terms = terms;
+        }
+    }
+}
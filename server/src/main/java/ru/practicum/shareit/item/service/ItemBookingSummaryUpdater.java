@@ -0,0 +1,91 @@
+package ru.practicum.shareit.item.service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.ItemBooking;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
+
+@Component
+public class ItemBookingSummaryUpdater {
+    private final BookingRepository bookingRepository;
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public ItemBookingSummaryUpdater(BookingRepository bookingRepository,
+                                     ItemBookingSummaryRepository summaryRepository,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${shareit.item.booking-summary.batch-size:500}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.summaryRepository = summaryRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Transactional
+    public void refresh(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        summaryRepository.insertMissing(itemIds);
+        // Concurrent refreshes of the same item wait on its summary row, so the bookings are read only after the
+        // other writer has committed. Items themselves are not locked.
+        List<ItemBookingSummary> summaries = summaryRepository.findAllByItemIdInOrderByItemId(itemIds);
+        Map<Long, ItemBooking> last = byItemId(bookingRepository.findLastBookingsByItemIds(itemIds));
+        Map<Long, ItemBooking> next = byItemId(bookingRepository.findNextBookingsByItemIds(itemIds, LocalDateTime.now()));
+        for (ItemBookingSummary summary : summaries) {
+            update(summary, last.get(summary.getItemId()), next.get(summary.getItemId()));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        List<Long> itemIds;
+        do {
+            itemIds = summaryRepository.findItemIdsWithoutSummary(PageRequest.of(0, batchSize));
+            refreshInTransaction(itemIds);
+        } while (itemIds.size() == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.item.booking-summary.sweep-delay-ms:60000}")
+    public void sweep() {
+        List<Long> itemIds;
+        do {
+            itemIds = summaryRepository.findStaleItemIds(LocalDateTime.now(), PageRequest.of(0, batchSize));
+            refreshInTransaction(itemIds);
+        } while (itemIds.size() == batchSize);
+    }
+
+    private void refreshInTransaction(List<Long> itemIds) {
+        transactionTemplate.executeWithoutResult(status -> refresh(itemIds));
+    }
+
+    private static Map<Long, ItemBooking> byItemId(List<ItemBooking> bookings) {
+        return bookings.stream().collect(Collectors.toMap(ItemBooking::getItemId, Function.identity(),
+                                                          (first, second) -> first, HashMap::new));
+    }
+
+    private static void update(ItemBookingSummary summary, ItemBooking last, ItemBooking next) {
+        summary.setLastBookingId(last == null ? null : last.getId());
+        summary.setLastBookerId(last == null ? null : last.getBookerId());
+        summary.setNextBookingId(next == null ? null : next.getId());
+        summary.setNextBookerId(next == null ? null : next.getBookerId());
+        summary.setNextStart(next == null ? null : next.getStart());
+    }
+}
@@ -1,21 +1,29 @@
 package ru.practicum.shareit.item.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import ru.practicum.shareit.booking.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemAvailability;
 
 public interface ItemService {
     Item addItem(ItemDto item, Long userId);
 
-    List<Item> findAllByUserId(Integer from, Integer size, Long userId);
+    List<Item> findAllByUserId(Integer from, Integer size, Long userId, Integer commentsSize);
 
-    Item findItemById(Long userId, Long itemId);
+    Item findItemById(Long userId, Long itemId, Integer commentsFrom, Integer commentsSize);
+
+    ItemAvailability getAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
+
+    String getAvailabilityVersion(Long itemId, LocalDateTime from, LocalDateTime to);
 
     List<Item> findAllByText(Integer from, Integer size, String text);
 
+    List<String> suggest(String prefix, Integer size);
+
     Item updateItem(Long userId, Long itemId, ItemDto item);
 
     Comment addComment(Long userId, Long itemId, CommentDto comment);
@@ -3,9 +3,12 @@ package ru.practicum.shareit.item.service;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 import ru.practicum.shareit.booking.dto.CommentDto;
 import ru.practicum.shareit.booking.model.Booking;
@@ -14,15 +17,28 @@ import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.BookingException;
 import ru.practicum.shareit.exception.InvalidCommentDateException;
 import ru.practicum.shareit.exception.InvalidItemRequestException;
+import ru.practicum.shareit.exception.InvalidPeriodException;
 import ru.practicum.shareit.exception.ItemNotFoundException;
 import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.BookingInfo;
+import ru.practicum.shareit.item.model.BookingSlot;
+import ru.practicum.shareit.item.model.BookingWindowVersion;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemAvailability;
+import ru.practicum.shareit.item.model.ItemBooking;
+import ru.practicum.shareit.item.model.ItemComment;
 import ru.practicum.shareit.item.model.ItemMapper;
+import ru.practicum.shareit.item.model.TimeSlot;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSuggester;
+import ru.practicum.shareit.item.search.RequestMatcher;
+import ru.practicum.shareit.outbox.OutboxEvent;
+import ru.practicum.shareit.outbox.OutboxService;
+import ru.practicum.shareit.transaction.AfterCommit;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
@@ -33,6 +49,10 @@ public class ItemServiceImpl implements ItemService {
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemSearchEngine searchEngine;
+    private final ItemSuggester suggester;
+    private final RequestMatcher matcher;
+    private final OutboxService outbox;
 
     private void checkUserId(Long userId) throws UserNotFoundException {
         if (userRepository.findById(userId).isEmpty()) {
@@ -41,6 +61,7 @@ public class ItemServiceImpl implements ItemService {
     }
 
     @Override
+    @Transactional
     public Item addItem(ItemDto item, Long userId)
         throws UserNotFoundException, InvalidItemRequestException {
         checkUserId(userId);
@@ -49,62 +70,167 @@ public class ItemServiceImpl implements ItemService {
             item.getAvailable() == null) {
             throw new InvalidItemRequestException("Invalid item fields");
         }
-        Item toSave = ItemMapper.toItem(item, userId);
-        return itemRepository.save(toSave);
+        Item saved = itemRepository.save(ItemMapper.toItem(item, userId));
+        outbox.append(OutboxEvent.ITEM, saved.getId(), "created", saved);
+        AfterCommit.run(() -> index(null, saved));
+        if (saved.getRequestId() == null) {
+            saved.setRequestCandidates(matcher.matchRequests(saved));
+        }
+        return saved;
     }
 
     @Override
-    public List<Item> findAllByUserId(Integer from, Integer size, Long userId) throws UserNotFoundException {
+    @Transactional(readOnly = true)
+    public List<Item> findAllByUserId(Integer from, Integer size, Long userId, Integer commentsSize)
+        throws UserNotFoundException {
         checkUserId(userId);
 
         List<Item> items = itemRepository.findByOwnerOrderById(userId, PageRequest.of(from, size));
-        for (Item item : items) {
-            Booking last = bookingRepository.findTopBookingByItemIdOrderByStartAsc(item.getId());
-            Booking next = bookingRepository.findFirstBookingByItemIdAndStartAfterOrderByStartAsc(item.getId(), LocalDateTime.now());
-            if (last != null) {
-                item.setLastBooking(BookingInfo.builder().id(last.getId()).bookerId(last.getBooker().getId()).build());
-            }
-            if (next != null) {
-                item.setNextBooking(BookingInfo.builder().id(next.getId()).bookerId(next.getBooker().getId()).build());
-            }
+        if (items.isEmpty()) {
+            return items;
+        }
 
-            item.setComments(commentRepository.findCommentsByItemId(item.getId()));
+        List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
+        setBookingPointers(items);
+        Map<Long, List<Comment>> comments = commentRepository.findFirstCommentsWithAuthorByItemIdIn(itemIds, commentsSize)
+                                                             .stream()
+                                                             .map(ItemServiceImpl::toComment)
+                                                             .collect(Collectors.groupingBy(Comment::getItemId));
+        for (Item item : items) {
+            item.setComments(comments.getOrDefault(item.getId(), new ArrayList<>()));
         }
 
         return items;
     }
 
+    private static Comment toComment(ItemComment comment) {
+        return Comment.builder()
+                      .id(comment.getId())
+                      .text(comment.getText())
+                      .authorName(comment.getAuthorName())
+                      .authorId(comment.getAuthorId())
+                      .itemId(comment.getItemId())
+                      .created(comment.getCreated())
+                      .build();
+    }
+
+    private void setBookingPointers(List<Item> items) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> stale = items.stream()
+                                .filter(item -> item.getNextBookingStart() != null && !item.getNextBookingStart().isAfter(now))
+                                .map(Item::getId)
+                                .collect(Collectors.toList());
+        Map<Long, BookingInfo> next = stale.isEmpty()
+                ? Map.of()
+                : toBookingInfo(bookingRepository.findNextBookingsByItemIds(stale, now));
+        for (Item item : items) {
+            item.setLastBooking(toBookingInfo(item.getLastBookingId(), item.getLastBookerId()));
+            item.setNextBooking(stale.contains(item.getId())
+                                        ? next.get(item.getId())
+                                        : toBookingInfo(item.getNextBookingId(), item.getNextBookerId()));
+        }
+    }
+
+    private Map<Long, BookingInfo> toBookingInfo(List<ItemBooking> bookings) {
+        return bookings.stream()
+                       .collect(Collectors.toMap(ItemBooking::getItemId,
+                                                 b -> BookingInfo.builder().id(b.getId()).bookerId(b.getBookerId()).build()));
+    }
+
+    private static BookingInfo toBookingInfo(Long bookingId, Long bookerId) {
+        return bookingId == null ? null : BookingInfo.builder().id(bookingId).bookerId(bookerId).build();
+    }
+
     @Override
-    public Item findItemById(Long userId, Long itemId) throws UserNotFoundException {
+    @Transactional(readOnly = true)
+    public Item findItemById(Long userId, Long itemId, Integer commentsFrom, Integer commentsSize)
+        throws UserNotFoundException {
         Item item = itemRepository.findById(itemId).orElseThrow(() -> new ItemNotFoundException("Item nof found!"));
 
         if (item.getOwner().equals(userId)) {
-            Booking last = bookingRepository.findTopBookingByItemIdOrderByStartAsc(itemId);
-            Booking next = bookingRepository.findFirstBookingByItemIdAndStartAfterOrderByStartAsc(itemId, LocalDateTime.now());
-            if (last != null) {
-                item.setLastBooking(BookingInfo.builder().id(last.getId()).bookerId(last.getBooker().getId()).build());
+            setBookingPointers(List.of(item));
+        }
+        item.setComments(commentRepository.findCommentsWithAuthorByItemId(itemId,
+                                                                          PageRequest.of(commentsFrom / commentsSize, commentsSize)));
+
+        return item;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ItemAvailability getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        checkAvailabilityRequest(itemId, from, to);
+
+        List<BookingSlot> bookings = bookingRepository.findByItemIdAndStatusInAndStartBeforeAndEndAfterOrderByStartAsc(
+                itemId, List.of(Status.WAITING, Status.APPROVED), to, from);
+        List<TimeSlot> free = new ArrayList<>();
+        List<TimeSlot> occupied = new ArrayList<>();
+        LocalDateTime freeFrom = from;
+        for (BookingSlot booking : bookings) {
+            LocalDateTime start = booking.getStart().isBefore(from) ? from : booking.getStart();
+            LocalDateTime end = booking.getEnd().isAfter(to) ? to : booking.getEnd();
+            if (start.isAfter(freeFrom)) {
+                free.add(new TimeSlot(freeFrom, start, null));
             }
-            if (next != null) {
-                item.setNextBooking(BookingInfo.builder().id(next.getId()).bookerId(next.getBooker().getId()).build());
+            if (end.isAfter(freeFrom)) {
+                freeFrom = end;
             }
+            occupied.add(new TimeSlot(start, end, booking.getStatus()));
         }
-        item.setComments(commentRepository.findCommentsByItemId(item.getId()));
-        for (Comment comment : item.getComments()) {
-            comment.setAuthorName(userRepository.findById(comment.getId()).get().getName());
+        if (freeFrom.isBefore(to)) {
+            free.add(new TimeSlot(freeFrom, to, null));
         }
 
-        return item;
+        return ItemAvailability.builder()
+                               .itemId(itemId)
+                               .from(from)
+                               .to(to)
+                               .free(free)
+                               .occupied(occupied)
+                               .build();
     }
 
+    /**
+     * Changes whenever a booking overlapping the period is created, updated or deleted, without loading the bookings:
+     * ids only grow and every status change bumps the booking's version.
+     */
     @Override
+    @Transactional(readOnly = true)
+    public String getAvailabilityVersion(Long itemId, LocalDateTime from, LocalDateTime to) {
+        checkAvailabilityRequest(itemId, from, to);
+        BookingWindowVersion version = bookingRepository.findWindowVersion(itemId, from, to);
+        return version.getBookings() + "-" + version.getMaxId() + "-" + version.getVersionSum();
+    }
+
+    private void checkAvailabilityRequest(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new InvalidPeriodException("Invalid availability period!");
+        }
+        if (!itemRepository.existsById(itemId)) {
+            throw new ItemNotFoundException("Item not found!");
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<Item> findAllByText(Integer from, Integer size, String text) {
         if (text == null || text.isBlank()) {
             return new ArrayList<>();
         }
-        return itemRepository.searchItemByText(text, PageRequest.of(from, size));
+        return searchEngine.search(text, PageRequest.of(from, size));
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<String> suggest(String prefix, Integer size) {
+        if (prefix == null || prefix.isBlank()) {
+            return new ArrayList<>();
+        }
+        return suggester.suggest(prefix, size);
+    }
+
+    @Override
+    @Transactional
     public Item updateItem(Long userId, Long itemId, ItemDto itemDto) throws UserNotFoundException {
         checkUserId(userId);
 
@@ -112,6 +238,7 @@ public class ItemServiceImpl implements ItemService {
         if (!item.getOwner().equals(userId)) {
             throw new UserNotFoundException("User is not an owner!");
         }
+        Item previous = Item.builder().id(item.getId()).name(item.getName()).available(item.isAvailable()).build();
 
         if (itemDto.getName() != null && !itemDto.getName().isBlank()) {
             item.setName(itemDto.getName());
@@ -125,12 +252,21 @@ public class ItemServiceImpl implements ItemService {
         if (itemDto.getRequestId() != null) {
             item.setRequestId(itemDto.getRequestId());
         }
-        item = itemRepository.save(item);
+        Item saved = itemRepository.save(item);
+        outbox.append(OutboxEvent.ITEM, saved.getId(), "updated", saved);
+        AfterCommit.run(() -> index(previous, saved));
 
-        return item;
+        return saved;
+    }
+
+    private void index(Item previous, Item item) {
+        searchEngine.onItemSaved(item);
+        suggester.onItemSaved(previous, item);
+        matcher.onItemSaved(item);
     }
 
     @Override
+    @Transactional
     public Comment addComment(Long userId, Long itemId, CommentDto comment) {
         User user = userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException("User not found!"));
         Item item = itemRepository.findById(itemId).orElseThrow(() -> new ItemNotFoundException("Item not found!"));
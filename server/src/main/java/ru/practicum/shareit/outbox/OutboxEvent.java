@@ -0,0 +1,27 @@
+package ru.practicum.shareit.outbox;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxEvent {
+    public static final String BOOKING = "booking";
+    public static final String ITEM = "item";
+    public static final String REQUEST = "request";
+
+    private Long id;
+    private String aggregate;
+    private Long aggregateId;
+    private String type;
+    @JsonRawValue
+    private String payload;
+    private LocalDateTime created;
+}
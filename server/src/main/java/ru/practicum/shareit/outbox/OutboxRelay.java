@@ -0,0 +1,142 @@
+package ru.practicum.shareit.outbox;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drains outbox_pending to every registered sink. Each batch claims its rows with FOR UPDATE SKIP LOCKED and
+ * deletes the ones the sink accepted in the same transaction, so an event whose transaction commits late is
+ * picked up on the next run, and relays on several instances never hand the same event to a sink twice.
+ * H2 before 2.2 has no SKIP LOCKED; with skip-locked off a concurrent relay waits for the claim instead.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+    private static final RowMapper<OutboxEvent> EVENT = (rs, rowNum) -> OutboxEvent.builder()
+            .id(rs.getLong("id"))
+            .aggregate(rs.getString("aggregate"))
+            .aggregateId(rs.getLong("aggregate_id"))
+            .type(rs.getString("type"))
+            .payload(rs.getString("payload"))
+            .created(rs.getTimestamp("created").toLocalDateTime())
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final List<OutboxSink> sinks;
+    private final Map<String, Counter> relayed;
+    private final int batchSize;
+    private final int maxBatches;
+    private final long retentionMillis;
+    private final String claim;
+
+    public OutboxRelay(JdbcTemplate jdbcTemplate,
+                       TransactionTemplate transactionTemplate,
+                       List<OutboxSink> sinks,
+                       MeterRegistry meterRegistry,
+                       @Value("${shareit.outbox.relay.batch-size:1000}") int batchSize,
+                       @Value("${shareit.outbox.relay.max-batches:20}") int maxBatches,
+                       @Value("${shareit.outbox.retention-ms:86400000}") long retentionMillis,
+                       @Value("${shareit.outbox.relay.skip-locked:true}") boolean skipLocked) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.sinks = sinks;
+        this.relayed = sinks.stream()
+                            .map(OutboxSink::name)
+                            .collect(Collectors.toMap(Function.identity(),
+                                                      name -> Counter.builder("shareit.outbox.relayed")
+                                                                     .description("Outbox events accepted by a sink")
+                                                                     .tag("sink", name)
+                                                                     .register(meterRegistry)));
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.retentionMillis = retentionMillis;
+        this.claim = skipLocked ? "FOR UPDATE SKIP LOCKED" : "FOR UPDATE";
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.relay.delay-ms:200}")
+    public int relay() {
+        int relayed = 0;
+        for (OutboxSink sink : sinks) {
+            try {
+                relayed += relay(sink);
+            } catch (RuntimeException e) {
+                log.warn("Outbox sink {} failed, will retry", sink.name(), e);
+            }
+        }
+        return relayed;
+    }
+
+    /**
+     * Deletes events that every sink has taken and that are older than the retention period.
+     */
+    @Scheduled(fixedDelayString = "${shareit.outbox.sweep-delay-ms:600000}")
+    public int sweep() {
+        LocalDateTime expired = LocalDateTime.now().minusNanos(retentionMillis * 1_000_000);
+        return jdbcTemplate.update("DELETE FROM outbox_events WHERE created < ? AND NOT EXISTS " +
+                                           "(SELECT 1 FROM outbox_pending p WHERE p.event_id = outbox_events.id)",
+                                   Timestamp.valueOf(expired));
+    }
+
+    public int pending(String sink) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_pending WHERE sink = ?", Integer.class, sink);
+    }
+
+    private int relay(OutboxSink sink) {
+        int relayed = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Integer accepted = transactionTemplate.execute(status -> relayBatch(sink));
+            relayed += accepted;
+            if (accepted < batchSize) {
+                break;
+            }
+        }
+        return relayed;
+    }
+
+    private int relayBatch(OutboxSink sink) {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT event_id FROM outbox_pending WHERE sink = ? " +
+                                                           "ORDER BY event_id LIMIT ? " + claim,
+                                                   Long.class, sink.name(), batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<OutboxEvent> events = jdbcTemplate.query(
+                "SELECT id, aggregate, aggregate_id, type, payload, created FROM outbox_events " +
+                        "WHERE id IN (" + placeholders(ids.size()) + ") ORDER BY id",
+                EVENT, ids.toArray());
+        int accepted = sink.publish(events);
+        if (accepted > 0) {
+            List<Object> delivered = new ArrayList<>(accepted + 1);
+            delivered.add(sink.name());
+            events.subList(0, accepted).forEach(event -> delivered.add(event.getId()));
+            jdbcTemplate.update("DELETE FROM outbox_pending WHERE sink = ? AND event_id IN (" +
+                                        placeholders(accepted) + ")", delivered.toArray());
+            this.relayed.get(sink.name()).increment(accepted);
+        }
+        return accepted;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
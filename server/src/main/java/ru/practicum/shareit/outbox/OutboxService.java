@@ -0,0 +1,59 @@
+package ru.practicum.shareit.outbox;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Appends events in the caller's transaction together with one outbox_pending row per sink, so an event
+ * becomes visible to the relay exactly when the business change commits, whatever its id.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final List<OutboxSink> sinks;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String aggregate, Long aggregateId, String type, Object payload) {
+        String json = toJson(payload);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO outbox_events (aggregate, aggregate_id, type, payload, created) VALUES (?, ?, ?, ?, ?)",
+                    new String[]{"id"});
+            statement.setString(1, aggregate);
+            statement.setLong(2, aggregateId);
+            statement.setString(3, type);
+            statement.setString(4, json);
+            statement.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
+            return statement;
+        }, keyHolder);
+        long eventId = Objects.requireNonNull(keyHolder.getKey()).longValue();
+        for (OutboxSink sink : sinks) {
+            jdbcTemplate.update("INSERT INTO outbox_pending (sink, event_id) VALUES (?, ?)", sink.name(), eventId);
+        }
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Outbox payload is not serializable", e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.outbox;
+
+import java.util.List;
+
+public interface OutboxSink {
+    String name();
+
+    /**
+     * Delivers events in id order and returns how many of them, counted from the start of the list,
+     * were accepted. The rest stay pending and are offered again on the next run.
+     */
+    int publish(List<OutboxEvent> events);
+}
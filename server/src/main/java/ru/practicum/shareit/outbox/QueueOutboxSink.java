@@ -0,0 +1,49 @@
+package ru.practicum.shareit.outbox;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands events to an in-process consumer, which has to drain it with {@link #poll}. Once the queue is full the
+ * relay stops offering events and they stay pending until there is room again.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.outbox.sink", havingValue = "queue")
+public class QueueOutboxSink implements OutboxSink {
+    private final BlockingQueue<OutboxEvent> queue;
+
+    public QueueOutboxSink(@Value("${shareit.outbox.queue.capacity:10000}") int capacity) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public String name() {
+        return "queue";
+    }
+
+    @Override
+    public int publish(List<OutboxEvent> events) {
+        int accepted = 0;
+        for (OutboxEvent event : events) {
+            if (!queue.offer(event)) {
+                break;
+            }
+            accepted++;
+        }
+        return accepted;
+    }
+
+    public OutboxEvent poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.poll(timeout, unit);
+    }
+
+    public int size() {
+        return queue.size();
+    }
+}
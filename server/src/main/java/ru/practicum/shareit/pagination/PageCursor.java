@@ -0,0 +1,48 @@
+package ru.practicum.shareit.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.http.HttpHeaders;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.exception.InvalidCursorException;
+
+@Data
+@AllArgsConstructor
+public class PageCursor {
+    public static final String HEADER = "X-Next-Cursor";
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime position;
+    private final Long id;
+
+    public String encode() {
+        String raw = position + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String cursor) throws InvalidCursorException {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                                  Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public static <T> HttpHeaders nextPage(List<T> page, int size, Function<T, PageCursor> cursorOf) {
+        HttpHeaders headers = new HttpHeaders();
+        if (!page.isEmpty() && page.size() >= size) {
+            headers.set(HEADER, cursorOf.apply(page.get(page.size() - 1)).encode());
+        }
+        return headers;
+    }
+}
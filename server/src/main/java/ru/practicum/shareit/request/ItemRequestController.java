@@ -2,6 +2,7 @@ package ru.practicum.shareit.request;
 
 import java.util.List;
 
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -12,6 +13,8 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import lombok.AllArgsConstructor;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.service.ItemRequestService;
@@ -31,10 +34,17 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public List<ItemRequest> getAllRequests(@RequestParam Integer from,
-                                            @RequestParam Integer size,
-                                            @RequestHeader(header) Long userId) {
-        return service.getAllRequests(from, size, userId);
+    public ResponseEntity<List<ItemRequest>> getAllRequests(@RequestParam(defaultValue = "0") Integer from,
+                                                            @RequestParam Integer size,
+                                                            @RequestHeader(header) Long userId,
+                                                            @RequestParam(required = false) String cursor) {
+        List<ItemRequest> requests = cursor == null
+                ? service.getAllRequests(from, size, userId)
+                : service.getAllRequestsAfter(PageCursor.decode(cursor), size, userId);
+        return ResponseEntity.ok()
+                             .headers(PageCursor.nextPage(requests, size,
+                                                          request -> new PageCursor(request.getCreated(), request.getId())))
+                             .body(requests);
     }
 
     @GetMapping("/{requestId}")
@@ -43,6 +53,13 @@ public class ItemRequestController {
         return service.getRequestById(userId, requestId);
     }
 
+    @GetMapping("/{requestId}/candidates")
+    public List<Item> getCandidates(@RequestHeader(header) Long userId,
+                                    @PathVariable Long requestId,
+                                    @RequestParam(defaultValue = "10") Integer size) {
+        return service.getCandidates(userId, requestId, size);
+    }
+
     @PostMapping
     public ItemRequest addRequest(@RequestHeader(header) Long userId,
                                   @RequestBody ItemRequestDto request) {
@@ -1,14 +1,25 @@
 package ru.practicum.shareit.request.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import ru.practicum.shareit.request.model.ItemRequest;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
     List<ItemRequest> findAllByRequestorId(Long userId);
 
-    List<ItemRequest> findAllByRequestorIdIsNot(Long userId, PageRequest of);
+    List<ItemRequest> findAllByRequestorIdIsNotOrderByCreatedDescIdDesc(Long userId, PageRequest of);
+
+    @Query("SELECT r FROM ItemRequest r WHERE r.requestorId <> :userId " +
+            "AND (r.created < :created OR (r.created = :created AND r.id < :id)) " +
+            "ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findAllByRequestorIdIsNotAfter(Long userId, LocalDateTime created, Long id, PageRequest of);
+
+    @Query("SELECT r FROM ItemRequest r WHERE r.id > :id " +
+            "AND NOT EXISTS (SELECT i.id FROM Item i WHERE i.requestId = r.id) ORDER BY r.id")
+    List<ItemRequest> findOpenByIdGreaterThan(long id, PageRequest of);
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package ru.practicum.shareit.request.service;
 
 import java.util.List;
 
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 
@@ -10,6 +12,10 @@ public interface ItemRequestService {
 
     List<ItemRequest> getAllRequests(Integer from, Integer size, Long userId);
 
+    List<Item> getCandidates(Long userId, Long requestId, Integer size);
+
+    List<ItemRequest> getAllRequestsAfter(PageCursor after, Integer size, Long userId);
+
     ItemRequest getRequestById(Long userId, Long requestId);
 
     ItemRequest addRequest(Long userId, ItemRequestDto request);
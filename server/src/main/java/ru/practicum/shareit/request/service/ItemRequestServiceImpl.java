@@ -1,17 +1,27 @@
 package ru.practicum.shareit.request.service;
 
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import lombok.AllArgsConstructor;
 import ru.practicum.shareit.exception.RequestNotFoundException;
 import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.RequestMatcher;
+import ru.practicum.shareit.outbox.OutboxEvent;
+import ru.practicum.shareit.outbox.OutboxService;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.transaction.AfterCommit;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 @Service
@@ -20,6 +30,8 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final RequestMatcher matcher;
+    private final OutboxService outbox;
 
     private void checkUserId(Long userId) throws UserNotFoundException {
         if (userRepository.findById(userId).isEmpty()) {
@@ -28,22 +40,48 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ItemRequest> getAllByUserId(Long userId) {
         checkUserId(userId);
-        List<ItemRequest> requests = itemRequestRepository.findAllByRequestorId(userId);
-        requests.forEach(request -> request.getItems().addAll(itemRepository.findAllByRequestId(request.getId())));
-        return requests;
+        return withItems(itemRequestRepository.findAllByRequestorId(userId));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ItemRequest> getAllRequests(Integer from, Integer size, Long userId) {
         checkUserId(userId);
-        List<ItemRequest> requests = itemRequestRepository.findAllByRequestorIdIsNot(userId, PageRequest.of(from, size));
-        requests.forEach(request -> request.getItems().addAll(itemRepository.findAllByRequestId(request.getId())));
+        return withItems(itemRequestRepository.findAllByRequestorIdIsNotOrderByCreatedDescIdDesc(
+                userId, PageRequest.of(from / size, size)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemRequest> getAllRequestsAfter(PageCursor after, Integer size, Long userId) {
+        checkUserId(userId);
+        return withItems(itemRequestRepository.findAllByRequestorIdIsNotAfter(userId, after.getPosition(), after.getId(),
+                                                                              PageRequest.of(0, size)));
+    }
+
+    private List<ItemRequest> withItems(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return requests;
+        }
+        ItemRequest[] byId = requests.stream()
+                                     .sorted(Comparator.comparing(ItemRequest::getId))
+                                     .toArray(ItemRequest[]::new);
+        long[] ids = Arrays.stream(byId).mapToLong(ItemRequest::getId).toArray();
+        List<Long> requestIds = Arrays.stream(ids).boxed().collect(Collectors.toList());
+        for (Item item : itemRepository.findAllByRequestIdInOrderById(requestIds)) {
+            int index = Arrays.binarySearch(ids, item.getRequestId());
+            if (index >= 0) {
+                byId[index].getItems().add(item);
+            }
+        }
         return requests;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ItemRequest getRequestById(Long userId, Long requestId) {
         checkUserId(userId);
         ItemRequest request = itemRequestRepository.findById(requestId)
@@ -53,9 +91,22 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<Item> getCandidates(Long userId, Long requestId, Integer size) {
+        checkUserId(userId);
+        ItemRequest request = itemRequestRepository.findById(requestId)
+                                                   .orElseThrow(() -> new RequestNotFoundException("Request not found!"));
+        return matcher.matchItems(request, size);
+    }
+
+    @Override
+    @Transactional
     public ItemRequest addRequest(Long userId, ItemRequestDto request) {
         checkUserId(userId);
         ItemRequest toSave = ItemRequest.builder().description(request.getDescription()).requestorId(userId).build();
-        return itemRequestRepository.save(toSave);
+        ItemRequest saved = itemRequestRepository.save(toSave);
+        outbox.append(OutboxEvent.REQUEST, saved.getId(), "created", saved);
+        AfterCommit.run(() -> matcher.onRequestSaved(saved));
+        return saved;
     }
 }
\ No newline at end of file
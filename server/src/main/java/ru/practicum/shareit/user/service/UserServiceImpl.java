@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Objects;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 import ru.practicum.shareit.exception.InvalidEmailException;
 import ru.practicum.shareit.exception.UserAlreadyRegisteredException;
@@ -19,6 +20,7 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
 
     @Override
+    @Transactional
     public User addUser(UserDto user)
         throws InvalidEmailException, UserAlreadyRegisteredException {
         if (userRepository.findByEmail(user.getEmail()) != null) {
@@ -29,6 +31,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
     public void deleteUser(Long userId) {
         if (userRepository.findById(userId).isEmpty()) {
             throw new UserNotFoundException("User not found!");
@@ -37,17 +40,20 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public User getUser(Long userId) {
         return userRepository.findById(userId)
                              .orElseThrow(() -> new UserNotFoundException("User not found!"));
     }
 
     @Override
+    @Transactional
     public User updateUser(Long userId, UserDto userDto)
         throws InvalidEmailException, UserAlreadyRegisteredException {
         String email = userDto.getEmail();
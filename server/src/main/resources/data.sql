@@ -1,11 +1,16 @@
 DELETE FROM users;
 DELETE FROM bookings;
 DELETE FROM items;
+DELETE FROM item_booking_summary;
 DELETE FROM comments;
 DELETE FROM requests;
+DELETE FROM idempotency_keys;
+DELETE FROM outbox_pending;
+DELETE FROM outbox_events;
 
 ALTER TABLE users ALTER COLUMN ID RESTART WITH 1;
-ALTER TABLE bookings ALTER COLUMN ID RESTART WITH 1;
 ALTER TABLE items ALTER COLUMN ID RESTART WITH 1;
 ALTER TABLE comments ALTER COLUMN ID RESTART WITH 1;
-ALTER TABLE requests ALTER COLUMN ID RESTART WITH 1;
\ No newline at end of file
+ALTER TABLE requests ALTER COLUMN ID RESTART WITH 1;
+ALTER TABLE outbox_events ALTER COLUMN ID RESTART WITH 1;
+ALTER SEQUENCE bookings_seq RESTART WITH 1;
\ No newline at end of file
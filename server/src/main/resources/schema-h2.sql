@@ -0,0 +1,20 @@
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS bookings (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    start_date TIMESTAMP WITHOUT TIME ZONE,
+    end_date   TIMESTAMP WITHOUT TIME ZONE,
+    item_id    BIGINT REFERENCES items(id) ON DELETE CASCADE,
+    booker_id  BIGINT REFERENCES users(id) ON DELETE CASCADE,
+    status     VARCHAR(20)
+);
+
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS bookings_booker_start_idx ON bookings (booker_id, start_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_item_start_idx ON bookings (item_id, start_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_item_booker_status_idx ON bookings (item_id, booker_id, status, start_date);
+
+CREATE INDEX IF NOT EXISTS bookings_item_period_idx ON bookings (item_id, start_date, end_date);
\ No newline at end of file
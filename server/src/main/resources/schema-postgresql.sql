@@ -0,0 +1,128 @@
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+
+-- Migrates a plain bookings table from before partitioning. The body is single-quoted because the script
+-- runner splits statements on semicolons outside quotes.
+DO '
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace
+                   WHERE n.nspname = current_schema() AND c.relname = ''bookings'' AND c.relkind = ''r'') THEN
+        RETURN;
+    END IF;
+
+    LOCK TABLE bookings IN ACCESS EXCLUSIVE MODE;
+    IF EXISTS (SELECT 1 FROM bookings WHERE start_date IS NULL) THEN
+        RAISE EXCEPTION ''bookings has rows without start_date, they cannot be partitioned'';
+    END IF;
+    ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+    CREATE TABLE bookings_new (
+        id         BIGINT NOT NULL,
+        start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+        end_date   TIMESTAMP WITHOUT TIME ZONE,
+        item_id    BIGINT REFERENCES items(id) ON DELETE CASCADE,
+        booker_id  BIGINT REFERENCES users(id) ON DELETE CASCADE,
+        status     VARCHAR(20),
+        version    BIGINT NOT NULL DEFAULT 0,
+        PRIMARY KEY (id, start_date)
+    ) PARTITION BY RANGE (start_date);
+    CREATE TABLE bookings_cold PARTITION OF bookings_new FOR VALUES FROM (MINVALUE) TO (''2000-01-01'')
+        PARTITION BY RANGE (start_date);
+    CREATE TABLE bookings_cold_base PARTITION OF bookings_cold (
+        CONSTRAINT bookings_cold_base_bound CHECK (start_date < ''2000-01-01'')
+    ) FOR VALUES FROM (MINVALUE) TO (''2000-01-01'');
+    CREATE TABLE bookings_default PARTITION OF bookings_new DEFAULT;
+
+    INSERT INTO bookings_new (id, start_date, end_date, item_id, booker_id, status, version)
+    SELECT id, start_date, end_date, item_id, booker_id, status, version FROM bookings;
+
+    DROP TABLE bookings;
+    ALTER TABLE bookings_new RENAME TO bookings;
+    ALTER INDEX bookings_new_pkey RENAME TO bookings_pkey;
+    PERFORM setval(''bookings_seq'', (SELECT COALESCE(MAX(id), 0) FROM bookings) + 50, false);
+END';
+
+-- start_date is in the primary key because PostgreSQL requires the partition key there. Lookups and @Version
+-- updates by id alone cannot be pruned and probe the primary key index of every partition.
+CREATE TABLE IF NOT EXISTS bookings (
+    id         BIGINT NOT NULL,
+    start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_date   TIMESTAMP WITHOUT TIME ZONE,
+    item_id    BIGINT REFERENCES items(id) ON DELETE CASCADE,
+    booker_id  BIGINT REFERENCES users(id) ON DELETE CASCADE,
+    status     VARCHAR(20),
+    version    BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (id, start_date)
+) PARTITION BY RANGE (start_date);
+
+-- Turns a plain cold partition into a range-partitioned one holding the old rows as its first sub-partition,
+-- so archiving can move monthly partitions under it without copying rows. Runs in one transaction.
+DO '
+DECLARE
+    bound TEXT;
+BEGIN
+    SELECT split_part(pg_get_expr(c.relpartbound, c.oid), '''''''', 2) INTO bound
+    FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace
+    WHERE n.nspname = current_schema() AND c.relname = ''bookings_cold'' AND c.relkind = ''r'';
+    IF bound IS NULL THEN
+        RETURN;
+    END IF;
+
+    ALTER TABLE bookings DETACH PARTITION bookings_cold;
+    ALTER TABLE bookings_cold RENAME TO bookings_cold_base;
+    EXECUTE format(''ALTER TABLE bookings_cold_base ADD CONSTRAINT bookings_cold_base_bound CHECK (start_date < %L)'',
+                   bound);
+    CREATE TABLE bookings_cold (LIKE bookings INCLUDING DEFAULTS) PARTITION BY RANGE (start_date);
+    EXECUTE format(''ALTER TABLE bookings_cold ATTACH PARTITION bookings_cold_base FOR VALUES FROM (MINVALUE) TO (%L)'',
+                   bound);
+    EXECUTE format(''ALTER TABLE bookings ATTACH PARTITION bookings_cold FOR VALUES FROM (MINVALUE) TO (%L)'', bound);
+END';
+
+CREATE TABLE IF NOT EXISTS bookings_cold PARTITION OF bookings FOR VALUES FROM (MINVALUE) TO ('2000-01-01')
+    PARTITION BY RANGE (start_date);
+
+-- Every partition under bookings_cold keeps a validated CHECK matching its bound, so re-attaching the cold
+-- partition with a wider bound does not have to scan it.
+CREATE TABLE IF NOT EXISTS bookings_cold_base PARTITION OF bookings_cold (
+    CONSTRAINT bookings_cold_base_bound CHECK (start_date < '2000-01-01')
+) FOR VALUES FROM (MINVALUE) TO ('2000-01-01');
+
+CREATE TABLE IF NOT EXISTS bookings_default PARTITION OF bookings DEFAULT;
+
+CREATE INDEX IF NOT EXISTS bookings_booker_start_idx ON bookings (booker_id, start_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_item_start_idx ON bookings (item_id, start_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_item_booker_status_idx ON bookings (item_id, booker_id, status, start_date);
+
+CREATE INDEX IF NOT EXISTS bookings_item_period_idx ON bookings (item_id, start_date, end_date);
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS search_vector TSVECTOR
+    GENERATED ALWAYS AS (to_tsvector('simple', coalesce(name, '') || ' ' || coalesce(description, ''))) STORED;
+
+CREATE INDEX IF NOT EXISTS items_search_idx ON items USING GIN (search_vector);
+
+CREATE INDEX IF NOT EXISTS items_name_trgm_idx ON items USING GIN (name gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS items_description_trgm_idx ON items USING GIN (description gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS bookings_waiting_start_idx ON bookings (start_date, id) WHERE status = 'WAITING';
+
+DO '
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema() AND table_name = ''idempotency_keys''
+                   AND column_name = ''in_progress_until'') THEN
+        ALTER TABLE idempotency_keys ADD COLUMN in_progress_until TIMESTAMP WITHOUT TIME ZONE;
+    END IF;
+END';
+
+DO '
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = current_schema() AND table_name = ''requests'' AND column_name = ''created''
+               AND data_type <> ''timestamp without time zone'') THEN
+        ALTER TABLE requests ALTER COLUMN created SET DATA TYPE TIMESTAMP WITHOUT TIME ZONE;
+    END IF;
+END';
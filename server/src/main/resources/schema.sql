@@ -8,7 +8,7 @@ CREATE TABLE IF NOT EXISTS requests (
     id           BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
     description  VARCHAR(300) NOT NULL,
     requestor_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
-    created      DATE NOT NULL
+    created      TIMESTAMP WITHOUT TIME ZONE NOT NULL
 );
 
 CREATE TABLE IF NOT EXISTS items (
@@ -20,19 +20,62 @@ CREATE TABLE IF NOT EXISTS items (
     request_id   BIGINT REFERENCES requests(id) ON DELETE CASCADE
 );
 
-CREATE TABLE IF NOT EXISTS bookings (
-    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
-    start_date TIMESTAMP WITHOUT TIME ZONE,
-    end_date   TIMESTAMP WITHOUT TIME ZONE,
-    item_id    BIGINT REFERENCES items(id) ON DELETE CASCADE,
-    booker_id  BIGINT REFERENCES users(id) ON DELETE CASCADE,
-    status     VARCHAR(20)
-);
-
 CREATE TABLE IF NOT EXISTS comments (
     id        BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     text      VARCHAR(200),
     item_id   BIGINT REFERENCES items(id) ON DELETE CASCADE,
     author_id BIGINT REFERENCES users(id) ON DELETE CASCADE,
     created   TIMESTAMP WITHOUT TIME ZONE
-);
\ No newline at end of file
+);
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS items_owner_idx ON items (owner_id, id);
+
+CREATE INDEX IF NOT EXISTS items_request_idx ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS comments_item_idx ON comments (item_id, created, id);
+
+CREATE INDEX IF NOT EXISTS requests_requestor_idx ON requests (requestor_id);
+
+CREATE INDEX IF NOT EXISTS requests_created_idx ON requests (created DESC, id DESC);
+
+CREATE TABLE IF NOT EXISTS item_booking_summary (
+    item_id         BIGINT PRIMARY KEY REFERENCES items(id) ON DELETE CASCADE,
+    last_booking_id BIGINT,
+    last_booker_id  BIGINT,
+    next_booking_id BIGINT,
+    next_booker_id  BIGINT,
+    next_start      TIMESTAMP WITHOUT TIME ZONE
+);
+
+CREATE INDEX IF NOT EXISTS item_booking_summary_next_start_idx ON item_booking_summary (next_start);
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key   VARCHAR(300) PRIMARY KEY,
+    fingerprint       VARCHAR(32) NOT NULL,
+    response          VARCHAR(10000),
+    created           TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    in_progress_until TIMESTAMP WITHOUT TIME ZONE
+);
+
+CREATE INDEX IF NOT EXISTS idempotency_keys_created_idx ON idempotency_keys (created);
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    aggregate    VARCHAR(32) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    type         VARCHAR(64) NOT NULL,
+    payload      VARCHAR(10000) NOT NULL,
+    created      TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS outbox_events_created_idx ON outbox_events (created);
+
+CREATE TABLE IF NOT EXISTS outbox_pending (
+    sink     VARCHAR(64) NOT NULL,
+    event_id BIGINT NOT NULL REFERENCES outbox_events(id) ON DELETE CASCADE,
+    PRIMARY KEY (sink, event_id)
+);
+
+CREATE INDEX IF NOT EXISTS outbox_pending_event_idx ON outbox_pending (event_id);
@@ -0,0 +1,25 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs the same plan checks against a real PostgreSQL database with the partitioned bookings table, e.g.
+ * {@code mvn test -Dtest=PostgresQueryPlanTest -Dplan.postgres.url=jdbc:postgresql://localhost:5432/shareit_plan}.
+ * The schema scripts are applied to that database, so point it at a scratch one.
+ */
+@EnabledIfSystemProperty(named = "plan.postgres.url", matches = ".+")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(QueryPlanTest.CaptureConfiguration.class)
+@TestPropertySource(properties = {
+        "spring.datasource.driverClassName=org.postgresql.Driver",
+        "spring.datasource.url=${plan.postgres.url}",
+        "spring.datasource.username=${plan.postgres.username:postgres}",
+        "spring.datasource.password=${plan.postgres.password:}",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.platform=postgresql"
+})
+public class PostgresQueryPlanTest extends QueryPlanTest {
+}
@@ -0,0 +1,216 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the repository methods and EXPLAINs the SQL Hibernate actually sent, with the parameters it bound, so
+ * the Criteria feeds, keyset conditions and native window queries are checked as generated. On H2 this only
+ * proves a plain index exists for each query; the partial, partitioned and DESC indexes are PostgreSQL-only and
+ * are checked by {@link PostgresQueryPlanTest}.
+ */
+@DataJpaTest
+public class QueryPlanTest {
+    private static final List<Statement> CAPTURED = new ArrayList<>();
+    private static volatile boolean capturing;
+
+    @Value("${spring.sql.init.platform}")
+    private String platform;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private ItemBookingSummaryRepository summaryRepository;
+    private final LocalDateTime now = LocalDateTime.now();
+    private final PageRequest page = PageRequest.of(0, 20);
+
+    @Test
+    void bookingFeedsShouldUseIndexes() {
+        PageCursor after = new PageCursor(now, 100L);
+        for (State state : State.values()) {
+            assertIndexScans(() -> bookingRepository.findBookerFeed(1L, state, now, page));
+            assertIndexScans(() -> bookingRepository.findOwnerFeed(1L, state, now, page));
+            assertIndexScans(() -> bookingRepository.findBookerFeedAfter(1L, state, now, after, 20));
+            assertIndexScans(() -> bookingRepository.findOwnerFeedAfter(1L, state, now, after, 20));
+        }
+    }
+
+    @Test
+    void bookingFindersShouldUseIndexes() {
+        assertIndexScans(() -> bookingRepository.findById(1L));
+        assertIndexScans(() -> bookingRepository.findLastBookingsByItemIds(List.of(1L, 2L)));
+        assertIndexScans(() -> bookingRepository.findNextBookingsByItemIds(List.of(1L, 2L), now));
+        assertIndexScans(() -> bookingRepository.findFirstBookingByItemIdAndBookerIdAndStatusOrderByStartAsc(
+                1L, 2L, Status.APPROVED));
+        assertIndexScans(() -> bookingRepository.findByItemIdAndStatusInAndStartBeforeAndEndAfterOrderByStartAsc(
+                1L, List.of(Status.WAITING, Status.APPROVED), now.plusDays(1), now));
+        assertIndexScans(() -> bookingRepository.findAllByIdInAndItemOwner(List.of(1L, 2L), 1L));
+        assertIndexScans(() -> bookingRepository.findAllByIdIn(List.of(1L, 2L)));
+        assertIndexScans(() -> bookingRepository.findSummaryByBookerId(1L, now));
+        assertIndexScans(() -> bookingRepository.findSummaryByItemOwner(1L, now));
+        assertIndexScans(() -> bookingRepository.existsByBookerId(1L));
+        assertIndexScans(() -> bookingRepository.existsByItemOwner(1L));
+    }
+
+    @Test
+    void itemFindersShouldUseIndexes() {
+        assertIndexScans(() -> itemRepository.findByOwnerOrderById(1L, page));
+        assertIndexScans(() -> itemRepository.findByIdGreaterThanOrderById(1L, page));
+        assertIndexScans(() -> itemRepository.findAllByRequestId(1L));
+        assertIndexScans(() -> itemRepository.findAllByRequestIdInOrderById(List.of(1L, 2L)));
+        assertIndexScans(() -> summaryRepository.findStaleItemIds(now, page));
+    }
+
+    @Test
+    void commentFindersShouldUseIndexes() {
+        assertIndexScans(() -> commentRepository.findCommentsWithAuthorByItemId(1L, page));
+        assertIndexScans(() -> commentRepository.findFirstCommentsWithAuthorByItemIdIn(List.of(1L, 2L), 20));
+    }
+
+    @Test
+    void requestFindersShouldUseIndexes() {
+        assertIndexScans(() -> itemRequestRepository.findAllByRequestorId(1L));
+        assertIndexScans(() -> itemRequestRepository.findAllByRequestorIdIsNotOrderByCreatedDescIdDesc(1L, page));
+        assertIndexScans(() -> itemRequestRepository.findAllByRequestorIdIsNotAfter(1L, now, 100L, page));
+        assertIndexScans(() -> itemRequestRepository.findOpenByIdGreaterThan(1L, page));
+    }
+
+    private void assertIndexScans(Runnable queries) {
+        List<Statement> statements;
+        synchronized (CAPTURED) {
+            CAPTURED.clear();
+            capturing = true;
+            try {
+                queries.run();
+            } finally {
+                capturing = false;
+            }
+            statements = new ArrayList<>(CAPTURED);
+        }
+        assertFalse(statements.isEmpty(), "No statement captured");
+        boolean postgres = platform.equals("postgresql");
+        if (postgres) {
+            // the test tables are nearly empty, so without this the planner prefers a sequential scan everywhere
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        }
+        for (Statement statement : statements) {
+            String plan = String.join("\n", jdbcTemplate.query("EXPLAIN " + statement.sql, ps -> {
+                for (Map.Entry<Integer, Object> parameter : statement.parameters.entrySet()) {
+                    ps.setObject(parameter.getKey(), parameter.getValue());
+                }
+            }, (rs, rowNum) -> rs.getString(1)));
+            if (postgres) {
+                assertFalse(plan.contains("Seq Scan"), () -> "Sequential scan in plan:\n" + plan);
+                assertTrue(plan.contains("Index Scan") || plan.contains("Index Only Scan"),
+                           () -> "No index scan in plan:\n" + plan);
+            } else {
+                assertFalse(plan.contains("tableScan"), () -> "Sequential scan in plan:\n" + plan);
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class CaptureConfiguration {
+        @Bean
+        static BeanPostProcessor capturingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource)) {
+                        return bean;
+                    }
+                    return new DelegatingDataSource((DataSource) bean) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            return capture(super.getConnection());
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+    private static Connection capture(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(QueryPlanTest.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (method.getName().equals("prepareStatement")) {
+                        return capture((PreparedStatement) result, (String) args[0]);
+                    }
+                    return result;
+                });
+    }
+
+    private static PreparedStatement capture(PreparedStatement statement, String sql) {
+        Map<Integer, Object> parameters = new TreeMap<>();
+        return (PreparedStatement) Proxy.newProxyInstance(QueryPlanTest.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                        parameters.put((Integer) args[0], name.equals("setNull") ? null : args[1]);
+                    } else if (name.equals("clearParameters")) {
+                        parameters.clear();
+                    } else if (name.equals("executeQuery") && capturing) {
+                        CAPTURED.add(new Statement(sql, new TreeMap<>(parameters)));
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static class Statement {
+        private final String sql;
+        private final Map<Integer, Object> parameters;
+
+        private Statement(String sql, Map<Integer, Object> parameters) {
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the statements Hibernate prepares while serving one request. Subclasses add the fixture and the requests.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+public abstract class StatementCountTest {
+    protected final String header = "X-Sharer-User-Id";
+    @Autowired
+    protected MockMvc mvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    protected void assertStatements(long expected, RequestBuilder request, ResultMatcher... matchers) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        ResultActions result = mvc.perform(request)
+                                  .andExpect(status().isOk())
+                                  .andExpect(jsonPath("$").exists());
+        for (ResultMatcher matcher : matchers) {
+            result.andExpect(matcher);
+        }
+        assertEquals(expected, statistics.getPrepareStatementCount());
+    }
+}
@@ -6,14 +6,24 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.dto.BookingDecision;
+import ru.practicum.shareit.booking.dto.BookingDecisionResult;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingSummary;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.idempotency.IdempotencyService;
+import ru.practicum.shareit.idempotency.InMemoryIdempotencyStore;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.model.User;
 
 import java.nio.charset.StandardCharsets;
@@ -22,12 +32,17 @@ import java.util.List;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = BookingController.class)
+@Import({IdempotencyService.class, InMemoryIdempotencyStore.class})
 @DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
 class BookingControllerTest {
     private final String header = "X-Sharer-User-Id";
@@ -84,6 +99,52 @@ class BookingControllerTest {
                         .andExpect(jsonPath("$.status", is(booking.getStatus().toString())));
     }
 
+    @Test
+    void shouldAddBookingsInBatchAndReportEachEntry() throws Exception {
+        when(bookingService.addBookings(anyLong(), anyList())).thenReturn(List.of(
+                BookingBatchResult.builder().index(0).booking(booking).build(),
+                BookingBatchResult.builder().index(1).error("Item not found!").build()));
+
+        mvc.perform(post("/bookings/batch")
+                        .content(mapper.writeValueAsString(List.of(bookingDto, bookingDto)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(header, 3L)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$[0].booking.id", is(booking.getId()), Long.class))
+                        .andExpect(jsonPath("$[1].index", is(1)))
+                        .andExpect(jsonPath("$[1].error", is("Item not found!")));
+    }
+
+    @Test
+    void shouldReturnConflictOnConcurrentModification() throws Exception {
+        when(bookingService.updateBooking(anyLong(), anyBoolean(), anyLong()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Booking.class, 1L));
+
+        mvc.perform(patch("/bookings/1")
+                        .header(header, 1L)
+                        .param("approved", "true"))
+                        .andExpect(status().isConflict())
+                        .andExpect(jsonPath("$.error", is("Entity was modified concurrently, please retry!")));
+    }
+
+    @Test
+    void shouldApplyOwnerDecisions() throws Exception {
+        when(bookingService.decideBookings(eq(1L), anyList())).thenReturn(List.of(
+                BookingDecisionResult.builder().bookingId(1L).status(Status.APPROVED).build()));
+
+        mvc.perform(patch("/bookings/owner/decisions")
+                        .content(mapper.writeValueAsString(List.of(new BookingDecision(1L, true))))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(header, 1L)
+                        .accept(MediaType.APPLICATION_JSON))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$[0].bookingId", is(1L), Long.class))
+                        .andExpect(jsonPath("$[0].status", is("APPROVED")));
+    }
+
     @Test
     void setBookingStatusApproveAndReturnOkAndCode200() throws Exception {
         booking.setStatus(Status.APPROVED);
@@ -139,4 +200,89 @@ class BookingControllerTest {
                         .andExpect(jsonPath("$.[0].id", is(booking.getId()), Long.class))
                         .andExpect(jsonPath("$.[0].status", is(booking.getStatus().toString())));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getBookingsByCursorAndReturnNextCursor() throws Exception {
+        PageCursor cursor = new PageCursor(booking.getStart().plusDays(1), 10L);
+        when(bookingService.getAllByUserIdAfter(eq(cursor), anyInt(), anyLong(), any())).thenReturn(List.of(booking));
+
+        mvc.perform(get("/bookings")
+                        .param("state", "ALL")
+                        .param("cursor", cursor.encode())
+                        .param("size", "1")
+                        .header(header, 3L))
+                        .andExpect(status().isOk())
+                        .andExpect(header().string(PageCursor.HEADER,
+                                                   new PageCursor(booking.getStart(), booking.getId()).encode()))
+                        .andExpect(jsonPath("$.[0].id", is(booking.getId()), Long.class));
+    }
+
+    @Test
+    void getBookingsByInvalidCursorAndReturnCode400() throws Exception {
+        mvc.perform(get("/bookings/owner")
+                        .param("state", "ALL")
+                        .param("cursor", "not a cursor")
+                        .param("size", "1")
+                        .header(header, 1L))
+                        .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamOwnerBookingsAndStartAsyncResponse() throws Exception {
+        when(bookingService.subscribeOwner(anyLong())).thenReturn(new SseEmitter());
+
+        mvc.perform(get("/bookings/owner/stream")
+                        .header(header, 1L)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                        .andExpect(status().isOk())
+                        .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    void getOwnerSummaryAndReturnCountsPerState() throws Exception {
+        when(bookingService.getSummaryByOwnerId(1L)).thenReturn(new BookingSummary(5L, 1L, 2L, 2L, 1L, 0L));
+
+        mvc.perform(get("/bookings/owner/summary")
+                        .header(header, 1L))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.all", is(5)))
+                        .andExpect(jsonPath("$.past", is(2)))
+                        .andExpect(jsonPath("$.rejected", is(0)));
+    }
+
+    @Test
+    void replayBookingForRepeatedIdempotencyKey() throws Exception {
+        when(bookingService.addBooking(anyLong(), any())).thenReturn(booking);
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mvc.perform(post("/bookings")
+                            .content(mapper.writeValueAsString(bookingDto))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .header(header, 3L)
+                            .header("Idempotency-Key", "retry-1"))
+                            .andExpect(status().isOk())
+                            .andExpect(jsonPath("$.id", is(booking.getId()), Long.class))
+                            .andExpect(jsonPath("$.status", is(booking.getStatus().toString())));
+        }
+        verify(bookingService, times(1)).addBooking(anyLong(), any());
+    }
+
+    @Test
+    void rejectIdempotencyKeyReusedForAnotherBooking() throws Exception {
+        when(bookingService.addBooking(anyLong(), any())).thenReturn(booking);
+        mvc.perform(post("/bookings")
+                        .content(mapper.writeValueAsString(bookingDto))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(header, 3L)
+                        .header("Idempotency-Key", "retry-2"))
+                        .andExpect(status().isOk());
+        bookingDto.setEnd(bookingDto.getEnd().plusDays(1));
+
+        mvc.perform(post("/bookings")
+                        .content(mapper.writeValueAsString(bookingDto))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(header, 3L)
+                        .header("Idempotency-Key", "retry-2"))
+                        .andExpect(status().isConflict());
+    }
+}
@@ -0,0 +1,156 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingEvent;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.stream.BookingEventRegistry;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookingEventRegistryTest {
+    private final Queue<SseEmitter> emitters = new ArrayDeque<>();
+    private BookingEventRegistry registry = registry(1, 4, 60000);
+    private final BookingEvent event = BookingEvent.builder().bookingId(1L).itemId(1L).status(Status.WAITING).build();
+
+    @AfterEach
+    void shutdown() {
+        registry.shutdown();
+    }
+
+    @Test
+    void shouldKeepSubscriptionsPerOwner() {
+        SseEmitter first = registry.subscribe(1L);
+        registry.subscribe(1L);
+        registry.subscribe(2L);
+
+        assertNotNull(first);
+        assertEquals(2, registry.subscriberCount(1L));
+        assertEquals(1, registry.subscriberCount(2L));
+        assertEquals(0, registry.subscriberCount(3L));
+    }
+
+    @Test
+    void shouldIgnoreEventsForOwnersWithoutSubscriptions() {
+        assertDoesNotThrow(() -> registry.publish(3L, BookingEvent.CREATED, event));
+    }
+
+    @Test
+    void shouldDeliverEventsToSubscriber() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        emitters.add(emitter);
+        registry.subscribe(1L);
+
+        registry.publish(1L, BookingEvent.CREATED, event);
+        registry.publish(1L, BookingEvent.STATUS_CHANGED, event);
+
+        assertNotNull(emitter.sent.poll(5, TimeUnit.SECONDS));
+        assertNotNull(emitter.sent.poll(5, TimeUnit.SECONDS));
+        assertEquals(1, registry.subscriberCount(1L));
+    }
+
+    @Test
+    void shouldDropSubscriberWhenBufferOverflows() {
+        BlockingEmitter emitter = new BlockingEmitter();
+        emitters.add(emitter);
+        registry.subscribe(1L);
+
+        registry.publish(1L, BookingEvent.CREATED, event);
+        await(() -> emitter.blocked.getCount() == 0);
+        for (int i = 0; i < 5; i++) {
+            registry.publish(1L, BookingEvent.CREATED, event);
+        }
+
+        assertEquals(0, registry.subscriberCount(1L));
+        emitter.release.countDown();
+    }
+
+    @Test
+    void shouldDropSubscriberWhenSendFails() {
+        emitters.add(new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        });
+        registry.subscribe(1L);
+
+        registry.publish(1L, BookingEvent.CREATED, event);
+
+        await(() -> registry.subscriberCount(1L) == 0);
+    }
+
+    @Test
+    void shouldNotLetStuckSubscriberBlockOthers() throws Exception {
+        registry.shutdown();
+        registry = registry(1, 4, 100);
+        BlockingEmitter stuck = new BlockingEmitter();
+        RecordingEmitter fast = new RecordingEmitter();
+        emitters.add(stuck);
+        emitters.add(fast);
+        registry.subscribe(1L);
+        registry.subscribe(2L);
+
+        registry.publish(1L, BookingEvent.CREATED, event);
+        registry.publish(2L, BookingEvent.CREATED, event);
+
+        assertNotNull(fast.sent.poll(5, TimeUnit.SECONDS));
+        assertEquals(0, registry.subscriberCount(1L));
+        assertEquals(1, registry.subscriberCount(2L));
+    }
+
+    private BookingEventRegistry registry(int threads, int bufferSize, long writeTimeoutMs) {
+        return new BookingEventRegistry(threads, bufferSize, 60000, writeTimeoutMs) {
+            @Override
+            protected SseEmitter createEmitter(long timeoutMs) {
+                SseEmitter emitter = emitters.poll();
+                return emitter == null ? super.createEmitter(timeoutMs) : emitter;
+            }
+        };
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met in time");
+            Thread.onSpinWait();
+        }
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<SseEventBuilder> sent = new LinkedBlockingQueue<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sent.add(builder);
+        }
+    }
+
+    private static class BlockingEmitter extends SseEmitter {
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException("Write interrupted", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.job.BookingExpiryJob;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+public class BookingExpiryJobTest {
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldExpireOverdueWaitingBookingsInBatches() {
+        User owner = userRepository.save(User.builder().name("owner").email("owner@expiry.test").build());
+        User booker = userRepository.save(User.builder().name("booker").email("booker@expiry.test").build());
+        Item item = itemRepository.save(Item.builder().name("item").description("item").available(true)
+                                            .owner(owner.getId()).build());
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 5; i++) {
+            bookingRepository.save(Booking.builder().start(now.minusDays(i + 1)).end(now.plusDays(1)).item(item)
+                                          .booker(booker).status(Status.WAITING).build());
+        }
+        Booking future = bookingRepository.save(Booking.builder().start(now.plusDays(1)).end(now.plusDays(2))
+                                                       .item(item).booker(booker).status(Status.WAITING).build());
+        Booking approved = bookingRepository.save(Booking.builder().start(now.minusDays(1)).end(now.plusDays(1))
+                                                         .item(item).booker(booker).status(Status.APPROVED).build());
+        bookingRepository.flush();
+
+        BookingExpiryJob job = new BookingExpiryJob(bookingService, bookingRepository, meterRegistry, 2, 2);
+        assertEquals(4, job.expire());
+        assertTrue(meterRegistry.get("shareit.bookings.expiry.lag.seconds").gauge().value() > 0);
+        assertEquals(1, job.expire());
+        assertEquals(0, job.expire());
+        entityManager.clear();
+
+        assertEquals(5.0, meterRegistry.get("shareit.bookings.expired").counter().count());
+        assertEquals(0.0, meterRegistry.get("shareit.bookings.expiry.lag.seconds").gauge().value());
+        assertEquals(Status.WAITING, bookingRepository.findById(future.getId()).get().getStatus());
+        assertEquals(Status.APPROVED, bookingRepository.findById(approved.getId()).get().getStatus());
+        assertEquals(5, bookingRepository.findAll().stream().filter(b -> b.getStatus() == Status.EXPIRED).count());
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events " +
+                                                    "WHERE type = 'status-changed' AND payload LIKE '%EXPIRED%'",
+                                                    Integer.class));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldPublishOneEventPerBookingWhenInstancesRace() throws Exception {
+        User owner = userRepository.save(User.builder().name("owner").email("owner@race.test").build());
+        User booker = userRepository.save(User.builder().name("booker").email("booker@race.test").build());
+        Item item = itemRepository.save(Item.builder().name("item").description("item").available(true)
+                                            .owner(owner.getId()).build());
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(bookingRepository.save(Booking.builder().start(now.minusDays(i + 1)).end(now.plusDays(1))
+                                                  .item(item).booker(booker).status(Status.WAITING).build()).getId());
+        }
+        String events = "FROM outbox_events WHERE aggregate = 'booking' AND aggregate_id IN ("
+                + ids.stream().map(String::valueOf).collect(Collectors.joining(", ")) + ")";
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // the second instance reads the same WAITING rows and then waits on the first one's row locks
+            Future<Integer> second = transactionTemplate.execute(status -> {
+                assertEquals(3, bookingService.expireOverdue(now, 10));
+                Future<Integer> other = executor.submit(() -> bookingService.expireOverdue(now, 10));
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return other;
+            });
+            assertEquals(0, second.get());
+            assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) " + events
+                                                        + " AND type = 'status-changed'", Integer.class));
+        } finally {
+            executor.shutdownNow();
+            jdbcTemplate.update("DELETE FROM outbox_pending WHERE event_id IN (SELECT id " + events + ")");
+            jdbcTemplate.update("DELETE " + events);
+            bookingRepository.deleteAllById(ids);
+            itemRepository.delete(item);
+            userRepository.deleteAll(List.of(owner, booker));
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BookingIntervalIndexTest {
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final BookingIntervalIndex index = new BookingIntervalIndex(bookingRepository);
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+    @Test
+    void shouldDetectOverlapsWithApprovedBookingsFromRepository() {
+        when(bookingRepository.findAllByStatusAndEndAfter(eq(Status.APPROVED), any())).thenReturn(List.of(
+                booking(1L, 1L, start, start.plusDays(2)),
+                booking(2L, 1L, start.plusDays(4), start.plusDays(5))));
+        index.rebuild();
+
+        assertTrue(index.overlaps(1L, start.minusDays(1), start.plusHours(1)));
+        assertTrue(index.overlaps(1L, start.plusDays(1), start.plusDays(3)));
+        assertTrue(index.overlaps(1L, start.plusDays(3), start.plusDays(6)));
+        assertTrue(index.overlaps(1L, start.plusHours(1), start.plusHours(2)));
+        assertFalse(index.overlaps(1L, start.minusDays(1), start));
+        assertFalse(index.overlaps(1L, start.plusDays(2), start.plusDays(4)));
+        assertFalse(index.overlaps(1L, start.plusDays(5), start.plusDays(6)));
+        assertFalse(index.overlaps(2L, start, start.plusDays(2)));
+    }
+
+    @Test
+    void shouldAcceptNewIntervalsAndDropFinishedOnes() {
+        index.add(booking(1L, 1L, LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1)));
+        index.add(booking(2L, 1L, start, start.plusDays(1)));
+
+        assertFalse(index.overlaps(1L, LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1)));
+        assertTrue(index.overlaps(1L, start, start.plusDays(1)));
+    }
+
+    @Test
+    void shouldReleaseReservationWhenTransactionRollsBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.reserve(booking(1L, 1L, start, start.plusDays(1)));
+            assertTrue(index.overlaps(1L, start, start.plusDays(1)));
+
+            complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertFalse(index.overlaps(1L, start, start.plusDays(1)));
+    }
+
+    @Test
+    void shouldKeepReservationWhenTransactionCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.reserve(booking(1L, 1L, start, start.plusDays(1)));
+
+            complete(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(index.overlaps(1L, start, start.plusDays(1)));
+    }
+
+    @Test
+    void shouldKeepOpenReservationOnRebuild() {
+        when(bookingRepository.findAllByStatusAndEndAfter(eq(Status.APPROVED), any())).thenReturn(List.of(
+                booking(2L, 2L, start, start.plusDays(1))));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.reserve(booking(1L, 1L, start, start.plusDays(1)));
+            index.rebuild();
+
+            assertTrue(index.overlaps(1L, start, start.plusDays(1)));
+            assertTrue(index.overlaps(2L, start, start.plusDays(1)));
+            complete(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        index.rebuild();
+        assertFalse(index.overlaps(1L, start, start.plusDays(1)));
+    }
+
+    @Test
+    void shouldWaitForStripeLockBeforeRebuilding() throws Exception {
+        when(bookingRepository.findAllByStatusAndEndAfter(eq(Status.APPROVED), any())).thenReturn(List.of());
+        CountDownLatch insideLock = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread approval = new Thread(() -> index.locked(1L, () -> {
+            index.add(booking(1L, 1L, start, start.plusDays(1)));
+            insideLock.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        approval.start();
+        insideLock.await();
+        Thread rebuild = new Thread(index::rebuild);
+        rebuild.start();
+
+        rebuild.join(200);
+        assertTrue(rebuild.isAlive());
+        verify(bookingRepository, never()).findAllByStatusAndEndAfter(any(), any());
+
+        release.countDown();
+        approval.join();
+        rebuild.join();
+        assertFalse(index.overlaps(1L, start, start.plusDays(1)));
+    }
+
+    private void complete(int status) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(status);
+        }
+    }
+
+    private Booking booking(Long id, Long itemId, LocalDateTime start, LocalDateTime end) {
+        return Booking.builder()
+                      .id(id)
+                      .item(Item.builder().id(itemId).build())
+                      .start(start)
+                      .end(end)
+                      .status(Status.APPROVED)
+                      .build();
+    }
+}
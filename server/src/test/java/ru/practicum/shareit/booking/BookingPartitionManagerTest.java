@@ -0,0 +1,39 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.partition.BookingPartitionManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BookingPartitionManagerTest {
+    @Test
+    void partitionNameTest() {
+        assertEquals("bookings_p202603", BookingPartitionManager.partitionName(YearMonth.of(2026, 3)));
+        assertEquals("bookings_p202612", BookingPartitionManager.partitionName(YearMonth.of(2026, 12)));
+    }
+
+    @Test
+    void parseUpperBoundTest() {
+        assertEquals(LocalDate.of(2025, 10, 1),
+                BookingPartitionManager.parseUpperBound("FOR VALUES FROM (MINVALUE) TO ('2025-10-01 00:00:00')"));
+        assertThrows(IllegalStateException.class, () -> BookingPartitionManager.parseUpperBound("DEFAULT"));
+    }
+
+    @Test
+    void parseLowerBoundTest() {
+        assertEquals(LocalDate.of(2025, 9, 1), BookingPartitionManager.parseLowerBound(
+                "FOR VALUES FROM ('2025-09-01 00:00:00') TO ('2025-10-01 00:00:00')"));
+        assertThrows(IllegalStateException.class,
+                () -> BookingPartitionManager.parseLowerBound("FOR VALUES FROM (MINVALUE) TO ('2025-10-01 00:00:00')"));
+    }
+
+    @Test
+    void rangeNameTest() {
+        assertEquals("bookings_r200001_202510",
+                BookingPartitionManager.rangeName(LocalDate.of(2000, 1, 1), LocalDate.of(2025, 10, 1)));
+    }
+}
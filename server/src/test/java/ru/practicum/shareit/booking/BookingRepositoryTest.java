@@ -4,21 +4,34 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingSummary;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatusView;
+import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.BookingSlot;
+import ru.practicum.shareit.item.model.BookingWindowVersion;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBooking;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
@@ -48,7 +61,8 @@ public class BookingRepositoryTest {
         booking.setStatus(Status.WAITING);
         booking = bookingRepository.save(booking);
 
-        List<Booking> bookingList = bookingRepository.findBookingsByOwnerId(firstUser.getId(), PageRequest.of(0, 20));
+        List<Booking> bookingList = bookingRepository.findOwnerFeed(firstUser.getId(), State.ALL, LocalDateTime.now(),
+                                                                    PageRequest.of(0, 20));
         assertEquals(booking, bookingList.get(0));
         assertEquals(1, bookingList.size());
     }
@@ -68,7 +82,8 @@ public class BookingRepositoryTest {
         booking.setStatus(Status.WAITING);
         booking = bookingRepository.save(booking);
 
-        List<Booking> bookingList = bookingRepository.findAllByBookerId(secondUser.getId(), PageRequest.of(0, 20));
+        List<Booking> bookingList = bookingRepository.findBookerFeed(secondUser.getId(), State.ALL, LocalDateTime.now(),
+                                                                     PageRequest.of(0, 20));
         assertEquals(booking, bookingList.get(0));
         assertEquals(1, bookingList.size());
     }
@@ -88,8 +103,10 @@ public class BookingRepositoryTest {
         booking.setStatus(Status.WAITING);
         booking = bookingRepository.save(booking);
 
-        Booking last = bookingRepository.findTopBookingByItemIdOrderByStartAsc(item.getId());
-        assertEquals(booking, last);
+        List<ItemBooking> last = bookingRepository.findLastBookingsByItemIds(List.of(item.getId()));
+        assertEquals(1, last.size());
+        assertEquals(booking.getId(), last.get(0).getId());
+        assertEquals(secondUser.getId(), last.get(0).getBookerId());
     }
 
     @Test
@@ -107,10 +124,131 @@ public class BookingRepositoryTest {
         booking.setStatus(Status.WAITING);
         booking = bookingRepository.save(booking);
 
-        Booking last = bookingRepository.findFirstBookingByItemIdAndStartAfterOrderByStartAsc(item.getId(),
-                                                                                              LocalDateTime.now()
-                                                                                                            .minusMinutes(1));
-        assertEquals(booking, last);
+        List<ItemBooking> next = bookingRepository.findNextBookingsByItemIds(List.of(item.getId()),
+                                                                             LocalDateTime.now().minusMinutes(1));
+        assertEquals(1, next.size());
+        assertEquals(booking.getId(), next.get(0).getId());
+        assertEquals(secondUser.getId(), next.get(0).getBookerId());
+    }
+
+    @Test
+    void shouldFindLastAndNextBookingsForAllItemsInOneQuery() {
+        userRepository.save(firstUser);
+        userRepository.save(secondUser);
+        item.setOwner(firstUser.getId());
+        item = itemRepository.save(item);
+        Item other = itemRepository.save(Item.builder().name("other").description("other").available(true)
+                                             .owner(firstUser.getId()).build());
+        Item empty = itemRepository.save(Item.builder().name("empty").description("empty").available(true)
+                                             .owner(firstUser.getId()).build());
+
+        LocalDateTime now = LocalDateTime.now();
+        Booking first = bookingRepository.save(Booking.builder().start(now.minusDays(3)).end(now.minusDays(2)).item(item)
+                                                      .booker(secondUser).status(Status.APPROVED).build());
+        Booking soon = bookingRepository.save(Booking.builder().start(now.plusDays(1)).end(now.plusDays(2)).item(item)
+                                                     .booker(secondUser).status(Status.APPROVED).build());
+        bookingRepository.save(Booking.builder().start(now.plusDays(3)).end(now.plusDays(4)).item(item)
+                                      .booker(secondUser).status(Status.WAITING).build());
+        Booking otherBooking = bookingRepository.save(Booking.builder().start(now.minusDays(1)).end(now.plusDays(1))
+                                                             .item(other).booker(secondUser).status(Status.APPROVED).build());
+
+        List<Long> itemIds = List.of(item.getId(), other.getId(), empty.getId());
+        Map<Long, Long> last = bookingRepository.findLastBookingsByItemIds(itemIds).stream()
+                                                .collect(Collectors.toMap(ItemBooking::getItemId, ItemBooking::getId));
+        Map<Long, Long> next = bookingRepository.findNextBookingsByItemIds(itemIds, now).stream()
+                                                .collect(Collectors.toMap(ItemBooking::getItemId, ItemBooking::getId));
+
+        assertEquals(Map.of(item.getId(), first.getId(), other.getId(), otherBooking.getId()), last);
+        assertEquals(Map.of(item.getId(), soon.getId()), next);
+    }
+
+    @Test
+    void shouldFindBookingSlotsIntersectingPeriod() {
+        userRepository.save(firstUser);
+        userRepository.save(secondUser);
+        item.setOwner(firstUser.getId());
+        item = itemRepository.save(item);
+
+        LocalDateTime from = LocalDateTime.now().plusDays(10).truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime to = from.plusDays(5);
+        bookingRepository.save(Booking.builder().start(from.minusDays(2)).end(from.minusDays(1)).item(item)
+                                      .booker(secondUser).status(Status.APPROVED).build());
+        bookingRepository.save(Booking.builder().start(from.minusDays(1)).end(from.plusDays(1)).item(item)
+                                      .booker(secondUser).status(Status.APPROVED).build());
+        bookingRepository.save(Booking.builder().start(from.plusDays(2)).end(from.plusDays(3)).item(item)
+                                      .booker(secondUser).status(Status.REJECTED).build());
+        bookingRepository.save(Booking.builder().start(from.plusDays(4)).end(to.plusDays(1)).item(item)
+                                      .booker(secondUser).status(Status.WAITING).build());
+        bookingRepository.save(Booking.builder().start(to).end(to.plusDays(1)).item(item)
+                                      .booker(secondUser).status(Status.WAITING).build());
+
+        List<BookingSlot> slots = bookingRepository.findByItemIdAndStatusInAndStartBeforeAndEndAfterOrderByStartAsc(
+                item.getId(), List.of(Status.WAITING, Status.APPROVED), to, from);
+        assertEquals(2, slots.size());
+        assertEquals(from.minusDays(1), slots.get(0).getStart());
+        assertEquals(Status.APPROVED, slots.get(0).getStatus());
+        assertEquals(from.plusDays(4), slots.get(1).getStart());
+        assertEquals(Status.WAITING, slots.get(1).getStatus());
+    }
+
+    @Test
+    void shouldAssignSequenceIdsWhenSavingInBatch() {
+        userRepository.save(firstUser);
+        userRepository.save(secondUser);
+        item.setOwner(firstUser.getId());
+        item = itemRepository.save(item);
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Booking> saved = bookingRepository.saveAll(List.of(
+                Booking.builder().start(start).end(start.plusDays(1)).item(item).booker(secondUser)
+                       .status(Status.WAITING).build(),
+                Booking.builder().start(start.plusDays(2)).end(start.plusDays(3)).item(item).booker(secondUser)
+                       .status(Status.WAITING).build()));
+        bookingRepository.flush();
+
+        assertEquals(saved.get(0).getId() + 1, saved.get(1).getId());
+        assertEquals(2, bookingRepository.count());
+    }
+
+    @Test
+    void shouldUpdateOnlyWaitingBookingsOfOwnerInBulk() {
+        userRepository.save(firstUser);
+        userRepository.save(secondUser);
+        item.setOwner(firstUser.getId());
+        item = itemRepository.save(item);
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking waiting = bookingRepository.save(Booking.builder().start(start).end(start.plusDays(1)).item(item)
+                                                        .booker(secondUser).status(Status.WAITING).build());
+        Booking rejected = bookingRepository.save(Booking.builder().start(start).end(start.plusDays(1)).item(item)
+                                                         .booker(secondUser).status(Status.REJECTED).build());
+        List<Long> ids = List.of(waiting.getId(), rejected.getId());
+
+        assertEquals(2, bookingRepository.findAllByIdInAndItemOwner(ids, firstUser.getId()).size());
+        assertTrue(bookingRepository.findAllByIdInAndItemOwner(ids, secondUser.getId()).isEmpty());
+        assertEquals(1, bookingRepository.updateWaitingStatus(ids, Status.APPROVED));
+        Map<Long, Status> statuses = bookingRepository.findAllByIdIn(ids).stream()
+                                                      .collect(Collectors.toMap(BookingStatusView::getId,
+                                                                                BookingStatusView::getStatus));
+        assertEquals(Map.of(waiting.getId(), Status.APPROVED, rejected.getId(), Status.REJECTED), statuses);
+    }
+
+    @Test
+    void shouldRejectStaleBookingUpdate() {
+        userRepository.save(firstUser);
+        userRepository.save(secondUser);
+        item.setOwner(firstUser.getId());
+        item = itemRepository.save(item);
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking booking = bookingRepository.saveAndFlush(Booking.builder().start(start).end(start.plusDays(1)).item(item)
+                                                                .booker(secondUser).status(Status.WAITING).build());
+        Booking stale = Booking.builder().id(booking.getId()).start(booking.getStart()).end(booking.getEnd())
+                               .item(item).booker(secondUser).status(Status.REJECTED).version(booking.getVersion())
+                               .build();
+        bookingRepository.updateWaitingStatus(List.of(booking.getId()), Status.APPROVED);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> bookingRepository.saveAndFlush(stale));
     }
 
     @Test
@@ -134,4 +272,106 @@ public class BookingRepositoryTest {
         assertFalse(result.isEmpty());
         assertEquals(booking, result.get());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldFilterFeedByStateInQuery() {
+        userRepository.save(firstUser);
+        userRepository.save(secondUser);
+        item.setOwner(firstUser.getId());
+        item = itemRepository.save(item);
+        LocalDateTime now = LocalDateTime.now();
+
+        Booking past = bookingRepository.save(Booking.builder().start(now.minusDays(3)).end(now.minusDays(2)).item(item)
+                                                     .booker(secondUser).status(Status.APPROVED).build());
+        Booking current = bookingRepository.save(Booking.builder().start(now.minusDays(1)).end(now.plusDays(1)).item(item)
+                                                        .booker(secondUser).status(Status.APPROVED).build());
+        Booking future = bookingRepository.save(Booking.builder().start(now.plusDays(2)).end(now.plusDays(3)).item(item)
+                                                       .booker(secondUser).status(Status.WAITING).build());
+        Booking rejected = bookingRepository.save(Booking.builder().start(now.plusDays(4)).end(now.plusDays(5)).item(item)
+                                                         .booker(secondUser).status(Status.REJECTED).build());
+
+        assertEquals(List.of(rejected, future, current, past),
+                     bookingRepository.findBookerFeed(secondUser.getId(), State.ALL, now, PageRequest.of(0, 20)));
+        assertEquals(List.of(past), bookingRepository.findBookerFeed(secondUser.getId(), State.PAST, now, PageRequest.of(0, 20)));
+        assertEquals(List.of(current), bookingRepository.findOwnerFeed(firstUser.getId(), State.CURRENT, now, PageRequest.of(0, 20)));
+        assertEquals(List.of(rejected, future), bookingRepository.findOwnerFeed(firstUser.getId(), State.FUTURE, now, PageRequest.of(0, 20)));
+        assertEquals(List.of(future), bookingRepository.findOwnerFeed(firstUser.getId(), State.WAITING, now, PageRequest.of(0, 20)));
+        assertEquals(List.of(rejected), bookingRepository.findBookerFeed(secondUser.getId(), State.REJECTED, now, PageRequest.of(0, 20)));
+        assertEquals(List.of(future), bookingRepository.findBookerFeed(secondUser.getId(), State.ALL, now, PageRequest.of(1, 1)));
+        assertTrue(bookingRepository.findOwnerFeed(secondUser.getId(), State.ALL, now, PageRequest.of(0, 20)).isEmpty());
+        assertTrue(bookingRepository.existsByItemOwner(firstUser.getId()));
+        assertTrue(bookingRepository.existsByBookerId(secondUser.getId()));
+    }
+
+    @Test
+    void shouldPageFeedByCursor() {
+        userRepository.save(firstUser);
+        userRepository.save(secondUser);
+        item.setOwner(firstUser.getId());
+        item = itemRepository.save(item);
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+
+        Booking first = bookingRepository.save(Booking.builder().start(start).end(start.plusDays(1)).item(item)
+                                                      .booker(secondUser).status(Status.WAITING).build());
+        Booking second = bookingRepository.save(Booking.builder().start(start).end(start.plusDays(1)).item(item)
+                                                       .booker(secondUser).status(Status.WAITING).build());
+        Booking third = bookingRepository.save(Booking.builder().start(start.minusHours(1)).end(start).item(item)
+                                                      .booker(secondUser).status(Status.WAITING).build());
+
+        LocalDateTime now = LocalDateTime.now();
+        PageCursor cursor = new PageCursor(second.getStart(), second.getId());
+        assertEquals(List.of(first, third), bookingRepository.findBookerFeedAfter(secondUser.getId(), State.ALL, now, cursor, 20));
+        assertEquals(List.of(first), bookingRepository.findOwnerFeedAfter(firstUser.getId(), State.ALL, now, cursor, 1));
+        cursor = new PageCursor(third.getStart(), third.getId());
+        assertTrue(bookingRepository.findOwnerFeedAfter(firstUser.getId(), State.ALL, now, cursor, 20).isEmpty());
+    }
+
+    @Test
+    void shouldCountBookingsPerStateInOneQuery() {
+        userRepository.save(firstUser);
+        userRepository.save(secondUser);
+        item.setOwner(firstUser.getId());
+        item = itemRepository.save(item);
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.saveAll(List.of(
+                Booking.builder().item(item).booker(secondUser).status(Status.APPROVED)
+                       .start(now.minusDays(3)).end(now.minusDays(2)).build(),
+                Booking.builder().item(item).booker(secondUser).status(Status.APPROVED)
+                       .start(now.minusDays(1)).end(now.plusDays(1)).build(),
+                Booking.builder().item(item).booker(secondUser).status(Status.WAITING)
+                       .start(now.plusDays(2)).end(now.plusDays(3)).build(),
+                Booking.builder().item(item).booker(secondUser).status(Status.REJECTED)
+                       .start(now.plusDays(4)).end(now.plusDays(5)).build()));
+
+        BookingSummary expected = new BookingSummary(4L, 1L, 1L, 2L, 1L, 1L);
+        assertEquals(expected, bookingRepository.findSummaryByBookerId(secondUser.getId(), now));
+        assertEquals(expected, bookingRepository.findSummaryByItemOwner(firstUser.getId(), now));
+        assertEquals(new BookingSummary(0L, 0L, 0L, 0L, 0L, 0L),
+                     bookingRepository.findSummaryByBookerId(firstUser.getId(), now));
+    }
+
+    @Test
+    void shouldChangeWindowVersionWhenBookingInPeriodChanges() {
+        userRepository.save(firstUser);
+        userRepository.save(secondUser);
+        item.setOwner(firstUser.getId());
+        item = itemRepository.save(item);
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        LocalDateTime to = from.plusDays(5);
+
+        BookingWindowVersion empty = bookingRepository.findWindowVersion(item.getId(), from, to);
+        assertEquals(List.of(0L, 0L, 0L), List.of(empty.getBookings(), empty.getMaxId(), empty.getVersionSum()));
+
+        Booking booking = bookingRepository.save(Booking.builder().item(item).booker(secondUser).status(Status.WAITING)
+                                                        .start(from.plusDays(1)).end(from.plusDays(2)).build());
+        bookingRepository.save(Booking.builder().item(item).booker(secondUser).status(Status.WAITING)
+                                      .start(to.plusDays(1)).end(to.plusDays(2)).build());
+        BookingWindowVersion created = bookingRepository.findWindowVersion(item.getId(), from, to);
+        assertEquals(List.of(1L, booking.getId(), 0L),
+                     List.of(created.getBookings(), created.getMaxId(), created.getVersionSum()));
+
+        booking.setStatus(Status.APPROVED);
+        bookingRepository.saveAndFlush(booking);
+        assertEquals(1L, bookingRepository.findWindowVersion(item.getId(), from, to).getVersionSum());
+    }
+}
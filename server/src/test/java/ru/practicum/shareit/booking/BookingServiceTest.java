@@ -6,15 +6,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.dto.BookingDecision;
+import ru.practicum.shareit.booking.dto.BookingDecisionResult;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatusView;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 import java.time.LocalDateTime;
@@ -24,12 +29,15 @@ import java.util.Objects;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest
 public class BookingServiceTest {
     @Autowired
     private BookingService bookingService;
+    @Autowired
+    private BookingIntervalIndex intervalIndex;
     @MockBean
     private BookingRepository mockBookingRepository;
     @MockBean
@@ -53,6 +61,7 @@ public class BookingServiceTest {
 
     @BeforeEach
     void setUp() {
+        intervalIndex.rebuild();
         LocalDateTime time = LocalDateTime.now();
         booking = Booking.builder()
                          .id(1L)
@@ -146,6 +155,96 @@ public class BookingServiceTest {
         assertEquals(Status.APPROVED, result.getStatus());
     }
 
+    @Test
+    void shouldAddValidBookingsOfBatchAndReportInvalidOnes() {
+        Item unavailable = Item.builder().id(3L).owner(user.getId()).available(false).build();
+        Item own = Item.builder().id(4L).owner(2L).available(true).build();
+        when(mockUserService.getUser(2L)).thenReturn(User.builder().id(2L).build());
+        when(itemRepository.findAllById(any())).thenReturn(List.of(item, unavailable, own));
+        when(mockBookingRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Booking> saved = invocation.getArgument(0);
+            saved.forEach(created -> created.setId(10L));
+            return saved;
+        });
+        BookingDto missing = BookingDto.builder().itemId(2L).start(booking.getStart()).end(booking.getEnd()).build();
+        BookingDto notAvailable = BookingDto.builder().itemId(3L).start(booking.getStart()).end(booking.getEnd()).build();
+        BookingDto owner = BookingDto.builder().itemId(4L).start(booking.getStart()).end(booking.getEnd()).build();
+        BookingDto backwards = BookingDto.builder().itemId(1L).start(booking.getEnd()).end(booking.getStart()).build();
+
+        List<BookingBatchResult> results = bookingService.addBookings(2L,
+                List.of(bookingDto, missing, notAvailable, owner, backwards));
+
+        assertEquals(5, results.size());
+        assertEquals(item, results.get(0).getBooking().getItem());
+        assertEquals(Status.WAITING, results.get(0).getBooking().getStatus());
+        assertEquals("Item not found!", results.get(1).getError());
+        assertEquals("Item is not available!", results.get(2).getError());
+        assertEquals("Owner can not book his item!", results.get(3).getError());
+        assertEquals("Invalid end time of booking!", results.get(4).getError());
+        verify(itemRepository, times(1)).findAllById(any());
+        verify(itemRepository, never()).findById(anyLong());
+        verify(mockBookingRepository).saveAll(List.of(results.get(0).getBooking()));
+    }
+
+    @Test
+    void shouldApplyOwnerDecisionsInBulk() {
+        Booking second = Booking.builder().id(2L).item(item).booker(booking.getBooker())
+                                .start(booking.getStart()).end(booking.getEnd()).status(Status.WAITING).build();
+        Booking third = Booking.builder().id(3L).item(item).booker(booking.getBooker())
+                               .start(booking.getEnd().plusDays(1)).end(booking.getEnd().plusDays(2))
+                               .status(Status.WAITING).build();
+        Booking decided = Booking.builder().id(4L).item(item).booker(booking.getBooker())
+                                 .start(booking.getStart()).end(booking.getEnd()).status(Status.REJECTED).build();
+        when(mockBookingRepository.findAllByIdInAndItemOwner(any(), eq(user.getId())))
+                .thenReturn(List.of(booking, second, third, decided));
+        when(mockBookingRepository.findAllByIdIn(any())).thenReturn(List.of(
+                statusView(1L, Status.APPROVED), statusView(2L, Status.WAITING), statusView(3L, Status.REJECTED),
+                statusView(4L, Status.REJECTED)));
+
+        List<BookingDecisionResult> results = bookingService.decideBookings(user.getId(), List.of(
+                new BookingDecision(1L, true), new BookingDecision(2L, true), new BookingDecision(3L, false),
+                new BookingDecision(4L, true), new BookingDecision(5L, true)));
+
+        assertEquals(5, results.size());
+        assertEquals(new BookingDecisionResult(1L, Status.APPROVED, null), results.get(0));
+        assertEquals(new BookingDecisionResult(2L, Status.WAITING, "Item is already booked for these dates!"),
+                     results.get(1));
+        assertEquals(new BookingDecisionResult(3L, Status.REJECTED, null), results.get(2));
+        assertEquals(new BookingDecisionResult(4L, Status.REJECTED, "booking has been already approved/rejected"),
+                     results.get(3));
+        assertEquals(new BookingDecisionResult(5L, null, "Booking not found!"), results.get(4));
+        verify(mockBookingRepository).updateWaitingStatus(List.of(3L), Status.REJECTED);
+        verify(mockBookingRepository).updateWaitingStatus(List.of(1L), Status.APPROVED);
+        verify(mockBookingRepository, never()).save(any());
+        assertTrue(intervalIndex.overlaps(item.getId(), booking.getStart(), booking.getEnd()));
+    }
+
+    @Test
+    void shouldNotAddBookingOverlappingApprovedOne() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.ofNullable(item));
+        when(mockUserService.getUser(2L)).thenReturn(User.builder().id(2L).build());
+        when(mockUserService.getUser(1L)).thenReturn(user);
+        intervalIndex.add(Booking.builder().id(5L).item(item).start(booking.getStart().minusHours(12))
+                                 .end(booking.getStart().plusHours(1)).status(Status.APPROVED).build());
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> bookingService.addBooking(2L, bookingDto));
+        assertEquals("Item is already booked for these dates!", ex.getMessage());
+        verify(mockBookingRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldNotApproveBookingOverlappingApprovedOne() {
+        when(mockBookingRepository.findById(1L)).thenReturn(Optional.ofNullable(booking));
+        intervalIndex.add(Booking.builder().id(5L).item(item).start(booking.getEnd().minusHours(1))
+                                 .end(booking.getEnd().plusDays(1)).status(Status.APPROVED).build());
+
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> bookingService.updateBooking(booking.getItem().getOwner(), true, booking.getId()));
+        assertEquals("Item is already booked for these dates!", ex.getMessage());
+        assertEquals(Status.WAITING, booking.getStatus());
+        verify(mockBookingRepository, never()).save(any());
+    }
+
     @Test
     void shouldRejectBookingIfWaiting() {
         when(mockBookingRepository.findById(1L)).thenReturn(Optional.ofNullable(booking));
@@ -188,6 +287,17 @@ public class BookingServiceTest {
         assertEquals("booking has been already approved/rejected", ex1.getMessage());
     }
 
+    @Test
+    void shouldNotDecideExpiredBooking() {
+        booking.setStatus(Status.EXPIRED);
+        when(mockBookingRepository.findById(1L)).thenReturn(Optional.ofNullable(booking));
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> bookingService.updateBooking(1L, true, 1L));
+        assertEquals("booking has been already approved/rejected", ex.getMessage());
+        RuntimeException ex1 = assertThrows(RuntimeException.class, () -> bookingService.updateBooking(1L, false, 1L));
+        assertEquals("booking has been already approved/rejected", ex1.getMessage());
+        verify(mockBookingRepository, never()).save(any());
+    }
+
     @Test
     void shouldFindBookingById() {
         when(mockBookingRepository.findById(1L)).thenReturn(Optional.ofNullable(booking));
@@ -205,7 +315,7 @@ public class BookingServiceTest {
     @Test
     void shouldReturnAllBookingsOfBooker() {
         when(mockUserService.getUser(any())).thenReturn(user);
-        when(mockBookingRepository.findAllByBookerId(2L, PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "start"))))
+        when(mockBookingRepository.findBookerFeed(eq(2L), eq(State.WAITING), any(), eq(PageRequest.of(0, 20))))
              .thenReturn(List.of(booking));
         List<Booking> bookings = bookingService.getAllByUserId(0, 20, 2L, State.WAITING);
         assertEquals(1, bookings.size());
@@ -215,8 +325,9 @@ public class BookingServiceTest {
     @Test
     void shouldReturnEmptyListIfWrongState() {
         when(mockUserService.getUser(any())).thenReturn(user);
-        when(mockBookingRepository.findAllByBookerId(2L, PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "start"))))
-             .thenReturn(List.of(booking));
+        when(mockBookingRepository.findBookerFeed(eq(2L), eq(State.CURRENT), any(), eq(PageRequest.of(0, 20))))
+             .thenReturn(new ArrayList<>());
+        when(mockBookingRepository.existsByBookerId(2L)).thenReturn(true);
         List<Booking> bookings = bookingService.getAllByUserId(0, 20, 2L, State.CURRENT);
         assertTrue(bookings.isEmpty());
     }
@@ -231,8 +342,9 @@ public class BookingServiceTest {
     @Test
     void shouldThrowExceptionIfBookerDoesNotHaveBookings() {
         when(mockUserService.getUser(any())).thenReturn(user);
-        when(mockBookingRepository.findAllByBookerId(2L, PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "start"))))
+        when(mockBookingRepository.findBookerFeed(eq(2L), eq(State.WAITING), any(), eq(PageRequest.of(0, 20))))
              .thenReturn(new ArrayList<>());
+        when(mockBookingRepository.existsByBookerId(2L)).thenReturn(false);
         RuntimeException ex = assertThrows(RuntimeException.class, () -> bookingService.getAllByUserId(0, 20, 2L, State.WAITING));
         assertEquals("User does not have bookings!", ex.getMessage());
     }
@@ -240,7 +352,7 @@ public class BookingServiceTest {
     @Test
     void shouldFindAllBookingsOfOwner() {
         when(mockUserService.getUser(any())).thenReturn(user);
-        when(mockBookingRepository.findBookingsByOwnerId(1L, PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "start"))))
+        when(mockBookingRepository.findOwnerFeed(eq(1L), eq(State.WAITING), any(), eq(PageRequest.of(0, 20))))
              .thenReturn(List.of(booking));
         List<Booking> bookings = bookingService.getAllByOwnerId(0, 20, 1L, State.WAITING);
         assertEquals(1, bookings.size());
@@ -250,8 +362,9 @@ public class BookingServiceTest {
     @Test
     void shouldReturnEmptyListOfOwnerBookingsIfWrongState() {
         when(mockUserService.getUser(any())).thenReturn(user);
-        when(mockBookingRepository.findBookingsByOwnerId(1L, PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "start"))))
-             .thenReturn(List.of(booking));
+        when(mockBookingRepository.findOwnerFeed(eq(1L), eq(State.REJECTED), any(), eq(PageRequest.of(0, 20))))
+             .thenReturn(new ArrayList<>());
+        when(mockBookingRepository.existsByItemOwner(1L)).thenReturn(true);
         List<Booking> bookings = bookingService.getAllByOwnerId(0, 20, 1L, State.REJECTED);
         assertTrue(bookings.isEmpty());
     }
@@ -266,8 +379,34 @@ public class BookingServiceTest {
     @Test
     void shouldThrowExceptionIfOwnerDoesNotHaveBookings() {
         when(mockUserService.getUser(any())).thenReturn(user);
-        when(mockBookingRepository.findAllByBookerId(1L, PageRequest.of(0, 20))).thenReturn(new ArrayList<>());
+        when(mockBookingRepository.existsByItemOwner(2L)).thenReturn(false);
         RuntimeException ex = assertThrows(RuntimeException.class, () -> bookingService.getAllByOwnerId(0, 20, 2L, State.WAITING));
         assertEquals("User does not have bookings!", ex.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldReturnBookingsAfterCursor() {
+        PageCursor cursor = new PageCursor(LocalDateTime.now(), 5L);
+        when(mockUserService.getUser(any())).thenReturn(user);
+        when(mockBookingRepository.findBookerFeedAfter(eq(2L), eq(State.ALL), any(), eq(cursor), eq(20)))
+             .thenReturn(List.of(booking));
+        when(mockBookingRepository.findOwnerFeedAfter(eq(1L), eq(State.ALL), any(), eq(cursor), eq(20)))
+             .thenReturn(List.of(booking));
+        assertEquals(List.of(booking), bookingService.getAllByUserIdAfter(cursor, 20, 2L, State.ALL));
+        assertEquals(List.of(booking), bookingService.getAllByOwnerIdAfter(cursor, 20, 1L, State.ALL));
+    }
+
+    private BookingStatusView statusView(Long id, Status status) {
+        return new BookingStatusView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Status getStatus() {
+                return status;
+            }
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.practicum.shareit.StatementCountTest;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingSummaryUpdater;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class BookingStatementCountTest extends StatementCountTest {
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemBookingSummaryUpdater itemSummaryUpdater;
+    private User owner;
+    private User booker;
+    private Item item;
+    private Booking booking;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder().name("owner").email("owner@count.test").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker@count.test").build());
+        item = itemRepository.save(Item.builder().name("drill").description("drill").available(true)
+                                       .owner(owner.getId()).build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < 5; i++) {
+            booking = bookingRepository.save(Booking.builder().start(start.plusDays(i)).end(start.plusDays(i).plusHours(1))
+                                                    .item(item).booker(booker).status(Status.APPROVED).build());
+        }
+        itemSummaryUpdater.refresh(List.of(item.getId()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void bookingDetailShouldBeSingleStatement() throws Exception {
+        assertStatements(1, get("/bookings/" + booking.getId()).header(header, booker.getId()));
+    }
+
+    @Test
+    void bookerFeedShouldJoinItemAndBookerInOneStatement() throws Exception {
+        assertStatements(2, get("/bookings").header(header, booker.getId())
+                                            .param("state", "ALL")
+                                            .param("size", "10"));
+    }
+
+    @Test
+    void ownerFeedShouldJoinItemAndBookerInOneStatement() throws Exception {
+        assertStatements(2, get("/bookings/owner").header(header, owner.getId())
+                                                  .param("state", "ALL")
+                                                  .param("size", "10"));
+    }
+
+    @Test
+    void ownerItemShouldReadBookingPointersWithItemRow() throws Exception {
+        assertStatements(2, get("/items/" + item.getId()).header(header, owner.getId()));
+    }
+
+    @Test
+    void ownerItemShouldExposeStoredBookingPointers() throws Exception {
+        mvc.perform(get("/items/" + item.getId()).header(header, owner.getId()))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$.lastBooking.bookerId").value(booker.getId()))
+           .andExpect(jsonPath("$.nextBooking.bookerId").value(booker.getId()))
+           .andExpect(jsonPath("$.lastBookingId").doesNotExist());
+    }
+
+    @Test
+    void ownerItemPageShouldNotDependOnPageSize() throws Exception {
+        assertStatements(3, get("/items").header(header, owner.getId())
+                                         .param("from", "0")
+                                         .param("size", "20"));
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingSummary;
+import ru.practicum.shareit.cache.ExpiringCache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BookingSummaryCacheTest {
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final ExpiringCache<Long, BookingSummary> cache = new ExpiringCache<>(1000, 2, clock::get);
+
+    @Test
+    void shouldReuseValueUntilExpired() {
+        cache.get(1L, this::load);
+        clock.addAndGet(999_000_000L);
+        cache.get(1L, this::load);
+        assertEquals(1, loads.get());
+
+        clock.addAndGet(1_000_000L);
+        cache.get(1L, this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldReloadAfterInvalidate() {
+        cache.get(1L, this::load);
+        cache.invalidate(1L);
+        cache.get(1L, this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldNotGrowPastMaxSize() {
+        cache.get(1L, this::load);
+        cache.get(2L, this::load);
+        cache.get(3L, this::load);
+        assertEquals(2, cache.size());
+
+        clock.addAndGet(1_000_000_000L);
+        cache.get(3L, this::load);
+        assertEquals(1, cache.size());
+    }
+
+    private BookingSummary load(Long userId) {
+        loads.incrementAndGet();
+        return BookingSummary.builder().all(userId).build();
+    }
+}
@@ -0,0 +1,116 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.partition.BookingPartitionManager;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs the archiver against a real PostgreSQL database, the same scratch one as {@code PostgresQueryPlanTest}:
+ * {@code mvn test -Dtest=PostgresBookingPartitionManagerTest -Dplan.postgres.url=jdbc:postgresql://...}.
+ * Each run moves the cold bound two months further.
+ */
+@JdbcTest
+@EnabledIfSystemProperty(named = "plan.postgres.url", matches = ".+")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(BookingPartitionManager.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.datasource.driverClassName=org.postgresql.Driver",
+        "spring.datasource.url=${plan.postgres.url}",
+        "spring.datasource.username=${plan.postgres.username:postgres}",
+        "spring.datasource.password=${plan.postgres.password:}",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.platform=postgresql",
+        "shareit.booking.partitioning.enabled=true",
+        "shareit.booking.partitioning.retention-months=1200",
+        "shareit.booking.partitioning.months-ahead=0"
+})
+class PostgresBookingPartitionManagerTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private BookingPartitionManager partitionManager;
+    private Long userId;
+    private Long itemId;
+
+    @BeforeEach
+    void setUp() {
+        userId = jdbcTemplate.queryForObject("INSERT INTO users (name, email) VALUES ('archive', ?) RETURNING id",
+                Long.class, "archive" + System.nanoTime() + "@test.test");
+        itemId = jdbcTemplate.queryForObject("INSERT INTO items (name, description, is_available, owner_id) "
+                + "VALUES ('item', 'item', TRUE, ?) RETURNING id", Long.class, userId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void archiveShouldKeepOldBookingsReadable() {
+        YearMonth month = YearMonth.from(partitionManager.findColdUpperBound());
+        partitionManager.createPartition(month);
+        List<Long> ids = List.of(
+                addBooking(month.minusMonths(1).atDay(10)),
+                addBooking(month.atDay(10)),
+                addBooking(month.plusMonths(1).atDay(10)));
+
+        AtomicBoolean archiving = new AtomicBoolean(true);
+        List<Integer> seen = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> reader = CompletableFuture.runAsync(() -> {
+            while (archiving.get()) {
+                seen.add(countBookings(ids));
+            }
+        });
+        try {
+            partitionManager.archive(month.plusMonths(2));
+        } finally {
+            archiving.set(false);
+            reader.join();
+        }
+
+        assertFalse(seen.isEmpty());
+        seen.forEach(count -> assertEquals(ids.size(), count));
+        assertEquals(ids.size(), countBookings(ids));
+        assertEquals(month.plusMonths(2).atDay(1), partitionManager.findColdUpperBound());
+        assertEquals(BookingPartitionManager.COLD_PARTITION, jdbcTemplate.queryForObject(
+                "SELECT p.relname FROM pg_inherits i JOIN pg_class p ON p.oid = i.inhparent "
+                        + "WHERE i.inhrelid = ?::regclass", String.class, BookingPartitionManager.partitionName(month)));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + BookingPartitionManager.DEFAULT_PARTITION
+                + " WHERE start_date < ?", Integer.class, month.plusMonths(2).atDay(1)));
+    }
+
+    private Long addBooking(LocalDate start) {
+        Long id = jdbcTemplate.queryForObject("SELECT nextval('bookings_seq')", Long.class);
+        jdbcTemplate.update("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) "
+                + "VALUES (?, ?, ?, ?, ?, 'APPROVED')", id, start.atStartOfDay(), start.plusDays(1).atStartOfDay(),
+                itemId, userId);
+        return id;
+    }
+
+    private int countBookings(List<Long> ids) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings WHERE booker_id = ? "
+                + "AND id IN (?, ?, ?)", Integer.class, userId, ids.get(0), ids.get(1), ids.get(2));
+        return count == null ? 0 : count;
+    }
+}
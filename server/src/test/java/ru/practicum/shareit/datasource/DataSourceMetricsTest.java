@@ -0,0 +1,19 @@
+package ru.practicum.shareit.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest
+class DataSourceMetricsTest {
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldExposeHikariMetricsPerPool() {
+        assertNotNull(meterRegistry.find("hikaricp.connections.active").tag("pool", "primary").gauge());
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReplicaRoutingDataSourceTest {
+    private final DataSource primary = new DriverManagerDataSource("jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1");
+    private final DataSource replica = new DriverManagerDataSource("jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1");
+
+    @Test
+    void shouldRouteReadOnlyTransactionsToReplica() {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica));
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        assertEquals("ROUTING-PRIMARY", database(jdbcTemplate));
+        assertEquals("ROUTING-PRIMARY", transaction.execute(status -> database(jdbcTemplate)));
+        transaction.setReadOnly(true);
+        assertEquals("ROUTING-REPLICA", transaction.execute(status -> database(jdbcTemplate)));
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWithoutReplica() {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, primary));
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.setReadOnly(true);
+
+        assertEquals("ROUTING-PRIMARY", transaction.execute(status -> database(jdbcTemplate)));
+    }
+
+    private String database(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("CALL DATABASE()", String.class);
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.idempotency;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@JdbcTest
+class IdempotencyStoreTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void jdbcStoreShouldReserveCompleteAndRelease() {
+        JdbcIdempotencyStore store = new JdbcIdempotencyStore(jdbcTemplate, 60000, 60000);
+
+        assertNull(store.reserve("bookings:1:key", "abc"));
+        assertEquals(new IdempotencyRecord("abc", null), store.reserve("bookings:1:key", "abc"));
+        store.complete("bookings:1:key", "{\"id\":1}");
+        assertEquals(new IdempotencyRecord("abc", "{\"id\":1}"), store.reserve("bookings:1:key", "other"));
+        store.release("bookings:1:key");
+        assertNull(store.reserve("bookings:1:key", "other"));
+    }
+
+    @Test
+    void jdbcStoreShouldReuseExpiredKeys() {
+        JdbcIdempotencyStore store = new JdbcIdempotencyStore(jdbcTemplate, 0, 60000);
+
+        assertNull(store.reserve("comments:1:1:key", "abc"));
+        assertNull(store.reserve("comments:1:1:key", "abc"));
+        assertEquals(1, store.sweep());
+    }
+
+    @Test
+    void jdbcStoreShouldReclaimKeyWhenLeaseIsOver() {
+        JdbcIdempotencyStore store = new JdbcIdempotencyStore(jdbcTemplate, 60000, 0);
+
+        assertNull(store.reserve("bookings:1:lease", "abc"));
+        assertNull(store.reserve("bookings:1:lease", "abc"));
+        store.complete("bookings:1:lease", "{}");
+        assertEquals(new IdempotencyRecord("abc", "{}"), store.reserve("bookings:1:lease", "abc"));
+        assertEquals(0, store.sweep());
+    }
+
+    @Test
+    void inMemoryStoreShouldEvictEldestKeyWhenFull() {
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(60000, 2);
+
+        assertNull(store.reserve("a", "1"));
+        assertNull(store.reserve("b", "2"));
+        assertNull(store.reserve("c", "3"));
+        assertEquals(2, store.size());
+        assertNull(store.reserve("a", "1"));
+        store.complete("c", "{}");
+        assertEquals(new IdempotencyRecord("3", "{}"), store.reserve("c", "3"));
+    }
+
+    @Test
+    void inMemoryStoreShouldKeepInsertionOrderOnReplay() {
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(60000, 2);
+
+        assertNull(store.reserve("a", "1"));
+        assertNull(store.reserve("b", "2"));
+        assertEquals(new IdempotencyRecord("1", null), store.reserve("a", "1"));
+        assertNull(store.reserve("c", "3"));
+        assertEquals(new IdempotencyRecord("2", null), store.reserve("b", "2"));
+        assertNull(store.reserve("a", "1"));
+    }
+}
@@ -0,0 +1,144 @@
+package ru.practicum.shareit.items;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.InMemoryItemSearchEngine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+public class InMemoryItemSearchEngineTest {
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final InMemoryItemSearchEngine engine = new InMemoryItemSearchEngine(itemRepository);
+    private static final String[] WORDS = {"drill", "hammer", "saw", "ladder", "tent", "bike", "camera", "tripod",
+        "kayak", "paddle", "grill", "mixer", "sander", "wrench", "clamp", "level", "vacuum", "projector", "speaker",
+        "heavy", "light", "cordless", "electric", "manual", "folding", "portable", "steel", "wooden", "old", "new",
+        "with", "and", "for", "garden", "kitchen", "garage", "battery", "charger", "case", "set"};
+    private final Map<Long, Item> stored = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        List<Item> items = List.of(item(1L, "Drill", "Cordless drill", true),
+                                   item(2L, "Hammer", "Heavy hammer", true),
+                                   item(3L, "Old drill", "Broken", false));
+        items.forEach(item -> stored.put(item.getId(), item));
+        when(itemRepository.findByIdGreaterThanOrderById(eq(0L), any())).thenReturn(items);
+        when(itemRepository.findAllById(any())).thenAnswer(invocation -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            return StreamSupport.stream(ids.spliterator(), false).map(stored::get).collect(Collectors.toList());
+        });
+        engine.rebuild();
+    }
+
+    @Test
+    void shouldFindAvailableItemsBySubstring() {
+        assertEquals(List.of(1L), ids(engine.search("rIL", PageRequest.of(0, 10))));
+        assertEquals(List.of(2L), ids(engine.search("heavy", PageRequest.of(0, 10))));
+        assertEquals(List.of(1L, 2L), ids(engine.search("r", PageRequest.of(0, 10))));
+        assertEquals(List.of(1L), ids(engine.search("dr", PageRequest.of(0, 10))));
+        assertTrue(engine.search("saw", PageRequest.of(0, 10)).isEmpty());
+        assertTrue(engine.search("drill broken", PageRequest.of(0, 10)).isEmpty());
+        verify(itemRepository).findByIdGreaterThanOrderById(eq(0L), any());
+        verify(itemRepository).findByIdGreaterThanOrderById(eq(3L), any());
+        verify(itemRepository, times(4)).findAllById(any());
+        verifyNoMoreInteractions(itemRepository);
+    }
+
+    @Test
+    void shouldUpdateIndexWhenItemIsSaved() {
+        save(item(3L, "Old drill", "Repaired", true));
+        save(item(1L, "Saw", "Hand saw", true));
+        save(item(2L, "Hammer", "Heavy hammer", false));
+
+        assertEquals(List.of(3L), ids(engine.search("drill", PageRequest.of(0, 10))));
+        assertEquals(List.of(1L), ids(engine.search("saw", PageRequest.of(0, 10))));
+        assertTrue(engine.search("hammer", PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void shouldPageResults() {
+        save(item(4L, "Drill bit", "Bit", true));
+        save(item(5L, "Drill press", "Bench drill", true));
+
+        assertEquals(List.of(1L), ids(engine.search("drill", PageRequest.of(0, 1))));
+        assertEquals(List.of(4L), ids(engine.search("drill", PageRequest.of(1, 1))));
+        assertEquals(List.of(5L), ids(engine.search("dri", PageRequest.of(1, 2))));
+        assertTrue(engine.search("drill", PageRequest.of(3, 1)).isEmpty());
+    }
+
+    @Test
+    void shouldKeepIdOrderWhenOldItemsAreEdited() {
+        List<Long> drills = new ArrayList<>(List.of(1L));
+        for (long id = 4; id <= 3000; id++) {
+            save(item(id, "Drill " + id, "Tool", true));
+            drills.add(id);
+        }
+        for (long id = 4; id <= 3000; id += 3) {
+            save(item(id, "Saw " + id, "Tool", true));
+            drills.remove(id);
+        }
+        for (long id = 4; id <= 3000; id += 6) {
+            save(item(id, "Drill " + id, "Tool", true));
+        }
+        drills.addAll(LongStream.rangeClosed(4, 3000).filter(id -> (id - 4) % 6 == 0).boxed()
+                                .collect(Collectors.toList()));
+        drills.sort(null);
+
+        assertEquals(drills, ids(engine.search("drill", PageRequest.of(0, 5000))));
+        assertEquals(drills, ids(engine.search("dr", PageRequest.of(0, 5000))));
+        assertEquals(List.of(2995L), ids(engine.search("saw 2995", PageRequest.of(0, 10))));
+        assertEquals(List.of(2998L), ids(engine.search("drill 2998", PageRequest.of(0, 10))));
+    }
+
+    @Test
+    void shouldKeepFootprintPerItemBounded() {
+        Random random = new Random(42);
+        int items = 100_000;
+        for (long id = 1; id <= items; id++) {
+            engine.onItemSaved(item(id, words(random, 2), words(random, 8), true));
+        }
+
+        long perItem = engine.footprint() / items;
+        assertTrue(perItem < 250, "index takes " + perItem + " bytes per item");
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(i == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    private void save(Item item) {
+        stored.put(item.getId(), item);
+        engine.onItemSaved(item);
+    }
+
+    private Item item(Long id, String name, String description, boolean available) {
+        return Item.builder().id(id).name(name).description(description).available(available).owner(1L).build();
+    }
+
+    private List<Long> ids(List<Item> items) {
+        return items.stream().map(Item::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,92 @@
+package ru.practicum.shareit.items;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingSummaryUpdater;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+public class ItemBookingSummaryUpdaterTest {
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemBookingSummaryRepository summaryRepository;
+    @Autowired
+    private ItemBookingSummaryUpdater updater;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    private Item item;
+    private Booking booking;
+
+    @BeforeEach
+    void setUp() {
+        User owner = userRepository.save(User.builder().name("owner").email("owner@summary.test").build());
+        User booker = userRepository.save(User.builder().name("booker").email("booker@summary.test").build());
+        item = itemRepository.save(Item.builder().name("drill").description("drill").available(true)
+                                       .owner(owner.getId()).build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        booking = bookingRepository.save(Booking.builder().start(start).end(start.plusHours(1))
+                                                .item(item).booker(booker).status(Status.APPROVED).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        summaryRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void shouldRefreshSameItemConcurrently() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < 20; j++) {
+                        transactionTemplate.executeWithoutResult(status -> updater.refresh(List.of(item.getId())));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, summaryRepository.count());
+        assertEquals(booking.getId(), summaryRepository.findById(item.getId()).orElseThrow().getNextBookingId());
+    }
+}
@@ -5,14 +5,21 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.dto.CommentDto;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.idempotency.IdempotencyService;
+import ru.practicum.shareit.idempotency.InMemoryIdempotencyStore;
 import ru.practicum.shareit.item.ItemController;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemAvailability;
+import ru.practicum.shareit.item.model.TimeSlot;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
 import ru.practicum.shareit.user.model.User;
 
@@ -22,12 +29,16 @@ import java.util.List;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ItemController.class)
+@Import({IdempotencyService.class, InMemoryIdempotencyStore.class})
 @DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
 public class ItemControllerTest {
     private final String header = "X-Sharer-User-Id";
@@ -81,7 +92,7 @@ public class ItemControllerTest {
 
     @Test
     void shouldFindItemById() throws Exception {
-        when(itemService.findItemById(anyLong(), anyLong())).thenReturn(item);
+        when(itemService.findItemById(anyLong(), anyLong(), anyInt(), anyInt())).thenReturn(item);
 
         mvc.perform(get("/items/1")
                         .header(header, item.getOwner()))
@@ -93,7 +104,7 @@ public class ItemControllerTest {
 
     @Test
     void shouldReturnAllItemsByUserId() throws Exception {
-        when(itemService.findAllByUserId(anyInt(), anyInt(), anyLong())).thenReturn(List.of(item));
+        when(itemService.findAllByUserId(anyInt(), anyInt(), anyLong(), anyInt())).thenReturn(List.of(item));
 
         mvc.perform(get("/items")
                         .param("from", "0")
@@ -120,6 +131,51 @@ public class ItemControllerTest {
                         .andExpect(jsonPath("$.[0].description", is(item.getDescription())));
     }
 
+    @Test
+    void shouldReturnSuggestionsByPrefix() throws Exception {
+        when(itemService.suggest("dr", 5)).thenReturn(List.of("Drill", "Drone"));
+
+        mvc.perform(get("/items/suggest")
+                        .param("prefix", "dr")
+                        .param("size", "5"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.[0]", is("Drill")))
+                        .andExpect(jsonPath("$.[1]", is("Drone")));
+    }
+
+    @Test
+    void shouldReturnAvailabilityWithEtagAndNotModifiedOnMatch() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(3);
+        ItemAvailability availability = ItemAvailability.builder()
+                                                        .itemId(1L)
+                                                        .from(from)
+                                                        .to(to)
+                                                        .free(List.of(new TimeSlot(from, from.plusDays(1), null)))
+                                                        .occupied(List.of(new TimeSlot(from.plusDays(1), to, Status.APPROVED)))
+                                                        .build();
+        when(itemService.getAvailability(1L, from, to)).thenReturn(availability);
+        when(itemService.getAvailabilityVersion(1L, from, to)).thenReturn("2-7-3");
+
+        String etag = mvc.perform(get("/items/1/availability")
+                                 .param("from", from.toString())
+                                 .param("to", to.toString()))
+                         .andExpect(status().isOk())
+                         .andExpect(header().exists(HttpHeaders.ETAG))
+                         .andExpect(jsonPath("$.free[0].end", is("2030-01-02T00:00:00")))
+                         .andExpect(jsonPath("$.occupied[0].status", is("APPROVED")))
+                         .andReturn()
+                         .getResponse()
+                         .getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/items/1/availability")
+                        .param("from", from.toString())
+                        .param("to", to.toString())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                        .andExpect(status().isNotModified());
+        verify(itemService, times(1)).getAvailability(1L, from, to);
+    }
+
     @Test
     void shouldUpdateItem() throws Exception {
         when(itemService.updateItem(anyLong(), anyLong(), any())).thenReturn(item);
@@ -5,7 +5,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemComment;
+import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
@@ -14,8 +17,10 @@ import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
 @DataJpaTest
@@ -27,6 +32,8 @@ public class ItemRepositoryTest {
     private UserRepository userRepository;
     @Autowired
     private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private CommentRepository commentRepository;
     private final User user = User.builder().name("null null").email("null@null.null").build();
     private final Item item = Item.builder().name("test item").description("test item").available(true).build();
 
@@ -41,6 +48,17 @@ public class ItemRepositoryTest {
         assertEquals(item, items.get(0));
     }
 
+    @Test
+    void shouldNotFindUnavailableItemByName() {
+        userRepository.save(user);
+        item.setOwner(user.getId());
+        item.setAvailable(false);
+        itemRepository.save(item);
+
+        List<Item> items = itemRepository.searchItemByText("eSt", PageRequest.of(0, 20));
+        assertTrue(items.isEmpty());
+    }
+
     @Test
     void shouldFindItemByItsOwnerId() {
         userRepository.save(user);
@@ -71,4 +89,50 @@ public class ItemRepositoryTest {
         assertEquals(1, items.size());
         assertEquals(item, items.get(0));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldFindCommentsWithAuthorNamesPageByPage() {
+        userRepository.save(user);
+        User author = userRepository.save(User.builder().name("author").email("author@null.null").build());
+        item.setOwner(user.getId());
+        itemRepository.save(item);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 3; i++) {
+            commentRepository.save(Comment.builder().text("comment " + i).authorId(author.getId())
+                                          .itemId(item.getId()).created(now.plusMinutes(i)).build());
+        }
+
+        List<Comment> first = commentRepository.findCommentsWithAuthorByItemId(item.getId(), PageRequest.of(0, 2));
+        List<Comment> second = commentRepository.findCommentsWithAuthorByItemId(item.getId(), PageRequest.of(1, 2));
+        assertEquals(2, first.size());
+        assertEquals(1, second.size());
+        assertEquals("comment 0", first.get(0).getText());
+        assertEquals("comment 2", second.get(0).getText());
+        assertEquals("author", first.get(0).getAuthorName());
+
+    }
+
+    @Test
+    void shouldCapCommentsPerItemForItemList() {
+        userRepository.save(user);
+        User author = userRepository.save(User.builder().name("author").email("author@null.null").build());
+        item.setOwner(user.getId());
+        itemRepository.save(item);
+        Item other = itemRepository.save(Item.builder().name("other").description("other").available(true)
+                                             .owner(user.getId()).build());
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 5; i++) {
+            commentRepository.save(Comment.builder().text("comment " + i).authorId(author.getId())
+                                          .itemId(item.getId()).created(now.plusMinutes(i)).build());
+        }
+        commentRepository.save(Comment.builder().text("other").authorId(author.getId())
+                                      .itemId(other.getId()).created(now.minusMinutes(1)).build());
+
+        List<ItemComment> comments = commentRepository.findFirstCommentsWithAuthorByItemIdIn(
+                List.of(item.getId(), other.getId()), 2);
+        assertEquals(List.of("other", "comment 0", "comment 1"),
+                     comments.stream().map(ItemComment::getText).collect(Collectors.toList()));
+        assertTrue(comments.stream().allMatch(comment -> "author".equals(comment.getAuthorName())));
+        assertEquals(other.getId(), comments.get(0).getItemId());
+    }
+}
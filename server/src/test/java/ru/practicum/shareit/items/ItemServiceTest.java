@@ -5,27 +5,39 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.booking.dto.CommentDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.BookingSlot;
+import ru.practicum.shareit.item.model.BookingWindowVersion;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemAvailability;
+import ru.practicum.shareit.item.model.ItemBooking;
+import ru.practicum.shareit.item.model.ItemComment;
+import ru.practicum.shareit.item.model.TimeSlot;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest
@@ -41,6 +53,10 @@ public class ItemServiceTest {
     private final BookingRepository bookingRepository;
     @MockBean
     private final CommentRepository commentRepository;
+    @SpyBean
+    private final ItemSearchEngine searchEngine;
+    @Autowired
+    private final TransactionTemplate transactionTemplate;
     private final User user = User.builder()
                                   .id(1L)
                                   .email("test@test.test")
@@ -63,6 +79,25 @@ public class ItemServiceTest {
         assertEquals(item, result);
     }
 
+    @Test
+    void shouldIndexItemOnlyAfterCommit() {
+        when(userRepository.findById(1L)).thenReturn(Optional.ofNullable(user));
+        when(itemRepository.save(any())).thenReturn(item);
+        ItemDto itemDto = ItemDto.builder().name("test").description("test").available(true).build();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            service.addItem(itemDto, user.getId());
+            status.setRollbackOnly();
+        });
+        verify(searchEngine, never()).onItemSaved(any());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            service.addItem(itemDto, user.getId());
+            verify(searchEngine, never()).onItemSaved(any());
+        });
+        verify(searchEngine, times(1)).onItemSaved(item);
+    }
+
     @Test
     void shouldThrowExceptionIfInvalidFields() {
         when(userRepository.findById(1L)).thenReturn(Optional.ofNullable(user));
@@ -72,26 +107,33 @@ public class ItemServiceTest {
 
     @Test
     void shouldReturnAllItemOfOwner() {
-        when(itemRepository.findByOwnerOrderById(item.getOwner(), PageRequest.of(0, 20))).thenReturn(List.of(item));
+        Item booked = Item.builder().id(1L).name("test").description("test").owner(user.getId()).available(true)
+                          .lastBookingId(1L).lastBookerId(2L).nextBookingId(2L).nextBookerId(2L)
+                          .nextBookingStart(LocalDateTime.now().plusDays(1)).build();
+        Item other = Item.builder().id(2L).name("other").description("other").owner(user.getId()).available(true).build();
+        when(itemRepository.findByOwnerOrderById(item.getOwner(), PageRequest.of(0, 20))).thenReturn(List.of(booked, other));
         when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
-        Booking last = Booking.builder().id(1L).booker(User.builder().id(2L).build()).build();
-        Booking next = Booking.builder().id(2L).booker(User.builder().id(2L).build()).build();
-        Comment comment = Comment.builder().build();
-        when(bookingRepository.findTopBookingByItemIdOrderByStartAsc(1L)).thenReturn(last);
-        when(bookingRepository.findFirstBookingByItemIdAndStartAfterOrderByStartAsc(anyLong(), any())).thenReturn(next);
-        when(commentRepository.findCommentsByItemId(any())).thenReturn(List.of(comment));
-        List<Item> items = service.findAllByUserId(0, 20, Objects.requireNonNull(item).getOwner());
-        assertEquals(1, items.size());
-        assertEquals(item, items.get(0));
-        item.setLastBooking(null);
-        item.setNextBooking(null);
-        item.setComments(new ArrayList<>());
+        when(commentRepository.findFirstCommentsWithAuthorByItemIdIn(List.of(1L, 2L), 5))
+                .thenReturn(List.of(itemComment(7L, 1L, "comment")));
+        List<Item> items = service.findAllByUserId(0, 20, Objects.requireNonNull(item).getOwner(), 5);
+        assertEquals(2, items.size());
+        assertEquals(1L, items.get(0).getLastBooking().getId());
+        assertEquals(2L, items.get(0).getNextBooking().getId());
+        assertEquals(1, items.get(0).getComments().size());
+        assertEquals(7L, items.get(0).getComments().get(0).getId());
+        assertEquals("author", items.get(0).getComments().get(0).getAuthorName());
+        assertNull(items.get(1).getLastBooking());
+        assertNull(items.get(1).getNextBooking());
+        assertTrue(items.get(1).getComments().isEmpty());
+        verify(bookingRepository, never()).findLastBookingsByItemIds(any());
+        verify(bookingRepository, never()).findNextBookingsByItemIds(any(), any());
+        verify(commentRepository, times(1)).findFirstCommentsWithAuthorByItemIdIn(any(), eq(5));
     }
 
     @Test
     void shouldThrowExceptionIfUserNotFoundWhenGetAllItems() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
-        RuntimeException ex = assertThrows(RuntimeException.class, () -> service.findAllByUserId(null, null, user.getId()));
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> service.findAllByUserId(null, null, user.getId(), 20));
         assertEquals("User not found!", ex.getMessage());
     }
 
@@ -99,26 +141,100 @@ public class ItemServiceTest {
     void shouldFindItemById() {
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
         when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
-        Booking last = Booking.builder().id(1L).booker(User.builder().id(2L).build()).build();
-        Booking next = Booking.builder().id(2L).booker(User.builder().id(2L).build()).build();
-        Comment comment = Comment.builder().id(1L).build();
-        when(bookingRepository.findTopBookingByItemIdOrderByStartAsc(1L)).thenReturn(last);
-        when(bookingRepository.findFirstBookingByItemIdAndStartAfterOrderByStartAsc(anyLong(), any())).thenReturn(next);
-        when(commentRepository.findCommentsByItemId(any())).thenReturn(List.of(comment));
-        Item result = service.findItemById(Objects.requireNonNull(user).getId(), item.getId());
+        Comment comment = Comment.builder().id(1L).authorId(user.getId()).authorName(user.getName()).build();
+        item.setLastBookingId(1L);
+        item.setLastBookerId(2L);
+        item.setNextBookingId(2L);
+        item.setNextBookerId(2L);
+        item.setNextBookingStart(LocalDateTime.now().plusDays(1));
+        when(commentRepository.findCommentsWithAuthorByItemId(1L, PageRequest.of(1, 10))).thenReturn(List.of(comment));
+        Item result = service.findItemById(Objects.requireNonNull(user).getId(), item.getId(), 10, 10);
         assertEquals(item, result);
-        item.setLastBooking(null);
-        item.setNextBooking(null);
-        item.setComments(new ArrayList<>());
+        assertEquals(List.of(comment), result.getComments());
+        assertEquals(1L, result.getLastBooking().getId());
+        assertEquals(2L, result.getNextBooking().getBookerId());
+        verify(userRepository, never()).findById(anyLong());
+        verify(bookingRepository, never()).findLastBookingsByItemIds(any());
+        verify(bookingRepository, never()).findNextBookingsByItemIds(any(), any());
+    }
+
+    @Test
+    void shouldReloadNextBookingIfStoredPointerIsInThePast() {
+        Item stale = Item.builder().id(1L).name("test").description("test").owner(user.getId()).available(true)
+                         .lastBookingId(1L).lastBookerId(2L).nextBookingId(2L).nextBookerId(2L)
+                         .nextBookingStart(LocalDateTime.now().minusMinutes(1)).build();
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(stale));
+        when(bookingRepository.findNextBookingsByItemIds(eq(List.of(1L)), any()))
+                .thenReturn(List.of(itemBooking(1L, 3L, 4L)));
+        Item result = service.findItemById(user.getId(), 1L, 0, 20);
+        assertEquals(1L, result.getLastBooking().getId());
+        assertEquals(3L, result.getNextBooking().getId());
+        assertEquals(4L, result.getNextBooking().getBookerId());
+        verify(bookingRepository, never()).findLastBookingsByItemIds(any());
     }
 
     @Test
     void shouldThrowExceptionIfItemNotFound() {
         when(itemRepository.findById(anyLong())).thenReturn(Optional.empty());
-        RuntimeException ex = assertThrows(RuntimeException.class, () -> service.findItemById(3L, 3L));
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> service.findItemById(3L, 3L, 0, 20));
         assertEquals("Item nof found!", ex.getMessage());
     }
 
+    @Test
+    void shouldComputeFreeAndOccupiedSlots() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(10);
+        when(itemRepository.existsById(1L)).thenReturn(true);
+        when(bookingRepository.findByItemIdAndStatusInAndStartBeforeAndEndAfterOrderByStartAsc(
+                1L, List.of(Status.WAITING, Status.APPROVED), to, from)).thenReturn(List.of(
+                        bookingSlot(from.minusDays(1), from.plusDays(1), Status.APPROVED),
+                        bookingSlot(from.plusDays(3), from.plusDays(5), Status.WAITING),
+                        bookingSlot(from.plusDays(4), from.plusDays(6), Status.WAITING),
+                        bookingSlot(from.plusDays(9), to.plusDays(1), Status.APPROVED)));
+
+        ItemAvailability availability = service.getAvailability(1L, from, to);
+
+        assertEquals(List.of(new TimeSlot(from.plusDays(1), from.plusDays(3), null),
+                             new TimeSlot(from.plusDays(6), from.plusDays(9), null)), availability.getFree());
+        assertEquals(4, availability.getOccupied().size());
+        assertEquals(new TimeSlot(from, from.plusDays(1), Status.APPROVED), availability.getOccupied().get(0));
+        assertEquals(new TimeSlot(from.plusDays(9), to, Status.APPROVED), availability.getOccupied().get(3));
+    }
+
+    @Test
+    void shouldDeriveAvailabilityVersionWithoutLoadingBookings() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(10);
+        when(itemRepository.existsById(1L)).thenReturn(true);
+        when(bookingRepository.findWindowVersion(1L, from, to)).thenReturn(new BookingWindowVersion() {
+            @Override
+            public Long getBookings() {
+                return 2L;
+            }
+
+            @Override
+            public Long getMaxId() {
+                return 7L;
+            }
+
+            @Override
+            public Long getVersionSum() {
+                return 3L;
+            }
+        });
+
+        assertEquals("2-7-3", service.getAvailabilityVersion(1L, from, to));
+        verify(bookingRepository, never()).findByItemIdAndStatusInAndStartBeforeAndEndAfterOrderByStartAsc(
+                anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void shouldThrowExceptionIfAvailabilityPeriodIsInvalid() {
+        LocalDateTime from = LocalDateTime.now();
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> service.getAvailability(1L, from, from));
+        assertEquals("Invalid availability period!", ex.getMessage());
+    }
+
     @Test
     void shouldReturnItemsWithTextInNameOrDescription() {
         when(itemRepository.searchItemByText("est", PageRequest.of(0, 20))).thenReturn(List.of(item));
@@ -175,4 +291,81 @@ public class ItemServiceTest {
         RuntimeException ex = assertThrows(RuntimeException.class, () -> service.addComment(1L, 1L, commentDto));
         assertEquals("Item not booked yet!", ex.getMessage());
     }
-}
\ No newline at end of file
+
+    private ItemBooking itemBooking(Long itemId, Long id, Long bookerId) {
+        return new ItemBooking() {
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getBookerId() {
+                return bookerId;
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return null;
+            }
+        };
+    }
+
+    private ItemComment itemComment(Long id, Long itemId, String text) {
+        return new ItemComment() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getText() {
+                return text;
+            }
+
+            @Override
+            public String getAuthorName() {
+                return "author";
+            }
+
+            @Override
+            public Long getAuthorId() {
+                return 2L;
+            }
+
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public LocalDateTime getCreated() {
+                return null;
+            }
+        };
+    }
+
+    private BookingSlot bookingSlot(LocalDateTime start, LocalDateTime end, Status status) {
+        return new BookingSlot() {
+            @Override
+            public LocalDateTime getStart() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return end;
+            }
+
+            @Override
+            public Status getStatus() {
+                return status;
+            }
+        };
+    }
+}
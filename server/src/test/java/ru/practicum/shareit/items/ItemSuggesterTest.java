@@ -0,0 +1,142 @@
+package ru.practicum.shareit.items;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSuggester;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ItemSuggesterTest {
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+
+    @Test
+    void shouldSuggestAvailableNamesByPrefix() {
+        when(itemRepository.findByIdGreaterThanOrderById(eq(0L), any())).thenReturn(List.of(
+                item(1L, "Drill", true),
+                item(2L, "drone", true),
+                item(3L, "Dryer", false),
+                item(4L, "Hammer", true),
+                item(5L, "Drill", true)));
+        ItemSuggester suggester = new ItemSuggester(itemRepository, 100, 10);
+        suggester.rebuild();
+
+        assertEquals(List.of("Drill", "drone"), suggester.suggest("DR", 10));
+        assertEquals(List.of("Drill"), suggester.suggest("dr", 1));
+        assertTrue(suggester.suggest("saw", 10).isEmpty());
+
+        suggester.onItemSaved(item(1L, "Drill", true), item(1L, "Saw", true));
+        assertEquals(List.of("Drill", "drone"), suggester.suggest("dr", 10));
+        suggester.onItemSaved(item(5L, "Drill", true), item(5L, "Drill", false));
+        assertEquals(List.of("drone"), suggester.suggest("dr", 10));
+        assertEquals(List.of("Saw"), suggester.suggest("s", 10));
+    }
+
+    @Test
+    void shouldRankNamesByPopularity() {
+        ItemSuggester suggester = new ItemSuggester(itemRepository, 100, 10);
+        suggester.onItemSaved(item(1L, "Drill", true));
+        suggester.onItemSaved(item(2L, "Drone", true));
+        suggester.onItemSaved(item(3L, "drone", true));
+        suggester.onItemSaved(item(4L, "Dryer", true));
+        suggester.onItemSaved(item(5L, "Dryer", true));
+        suggester.onItemSaved(item(6L, "Dryer", true));
+
+        assertEquals(List.of("Dryer", "Drone", "Drill"), suggester.suggest("dr", 10));
+        assertEquals(List.of("Dryer", "Drone"), suggester.suggest("dr", 2));
+
+        suggester.onItemSaved(item(4L, "Dryer", true), item(4L, "Drill", true));
+        suggester.onItemSaved(item(5L, "Dryer", true), item(5L, "Drill", true));
+        assertEquals(List.of("Drill", "Drone", "Dryer"), suggester.suggest("dr", 10));
+    }
+
+    @Test
+    void shouldKeepUpdatesArrivingDuringRebuild() {
+        ItemSuggester suggester = new ItemSuggester(itemRepository, 100, 10);
+        when(itemRepository.findByIdGreaterThanOrderById(eq(0L), any())).thenReturn(List.of(
+                item(1L, "Drill", true),
+                item(2L, "Drone", true)));
+        when(itemRepository.findByIdGreaterThanOrderById(eq(2L), any())).thenAnswer(invocation -> {
+            suggester.onItemSaved(item(1L, "Drill", true), item(1L, "Saw", true));
+            suggester.onItemSaved(item(3L, "Dryer", true));
+            return List.of(item(3L, "Dryer", true));
+        });
+        suggester.rebuild();
+
+        assertEquals(List.of("Drone", "Dryer"), suggester.suggest("dr", 10));
+        assertEquals(List.of("Saw"), suggester.suggest("s", 10));
+    }
+
+    @Test
+    void shouldRankWholePrefixRange() {
+        ItemSuggester suggester = new ItemSuggester(itemRepository, 10000, 10);
+        for (long id = 1; id <= 6000; id++) {
+            suggester.onItemSaved(item(id, "a" + String.format("%04d", id), true));
+        }
+        suggester.onItemSaved(item(6001L, "Azimuth", true));
+        suggester.onItemSaved(item(6002L, "Azimuth", true));
+
+        assertEquals(List.of("Azimuth"), suggester.suggest("a", 1));
+    }
+
+    @Test
+    void shouldKeepTopNamesOfLargeShortPrefixRangeAcrossUpdates() {
+        ItemSuggester suggester = new ItemSuggester(itemRepository, 100000, 10);
+        Random random = new Random(7);
+        List<Item> items = new ArrayList<>();
+        Map<String, Integer> counts = new HashMap<>();
+        for (long id = 1; id <= 50000; id++) {
+            Item item = item(id, "a" + random.nextInt(20000), true);
+            items.add(item);
+            counts.merge(item.getName(), 1, Integer::sum);
+            suggester.onItemSaved(item);
+        }
+        for (int i = 0; i < 20000; i++) {
+            Item item = items.get(random.nextInt(items.size()));
+            if (item.isAvailable()) {
+                suggester.onItemSaved(item, item(item.getId(), item.getName(), false));
+                item.setAvailable(false);
+                counts.merge(item.getName(), -1, Integer::sum);
+            }
+        }
+
+        for (String prefix : List.of("a", "a1", "a12", "a123", "a1234", "a12345", "b")) {
+            List<String> expected = counts.entrySet()
+                                          .stream()
+                                          .filter(entry -> entry.getValue() > 0 && entry.getKey().startsWith(prefix))
+                                          .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                                                          .thenComparing(Map.Entry.comparingByKey()))
+                                          .limit(5)
+                                          .map(Map.Entry::getKey)
+                                          .collect(Collectors.toList());
+            assertEquals(expected, suggester.suggest(prefix, 5), prefix);
+        }
+        assertEquals(10, suggester.suggest("a", 50).size());
+    }
+
+    @Test
+    void shouldNotGrowBeyondMaxNames() {
+        ItemSuggester suggester = new ItemSuggester(itemRepository, 2, 10);
+        suggester.onItemSaved(item(1L, "Axe", true));
+        suggester.onItemSaved(item(2L, "Awl", true));
+        suggester.onItemSaved(item(3L, "Anvil", true));
+
+        assertEquals(List.of("Awl", "Axe"), suggester.suggest("a", 10));
+    }
+
+    private Item item(Long id, String name, boolean available) {
+        return Item.builder().id(id).name(name).description(name).available(available).owner(1L).build();
+    }
+}
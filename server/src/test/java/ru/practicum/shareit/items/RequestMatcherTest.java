@@ -0,0 +1,109 @@
+package ru.practicum.shareit.items;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.RequestMatch;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.RequestMatcher;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RequestMatcherTest {
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final ItemRequestRepository itemRequestRepository = mock(ItemRequestRepository.class);
+    private final ItemRequest drill = request(1L, 2L, "Need a cordless drill for the weekend");
+    private final ItemRequest bike = request(2L, 2L, "Looking for a mountain bike");
+    private final ItemRequest ladder = request(3L, 3L, "Tall ladder to paint the ceiling");
+    private final ItemRequest ownDrill = request(4L, 1L, "Drill with hammer mode");
+
+    @Test
+    void shouldRankOpenRequestsOfOtherUsers() {
+        when(itemRequestRepository.findOpenByIdGreaterThan(eq(0L), any())).thenReturn(List.of(drill, bike, ladder, ownDrill));
+        when(itemRequestRepository.findAllById(anyIterable())).thenReturn(List.of(drill, ladder));
+        RequestMatcher matcher = new RequestMatcher(itemRepository, itemRequestRepository, 5, 5000);
+        matcher.rebuild();
+
+        List<RequestMatch> matches = matcher.matchRequests(item(10L, 1L, "Cordless drill", "Drill and ladder kit"));
+
+        assertEquals(List.of(1L, 3L), matches.stream().map(RequestMatch::getRequestId).collect(Collectors.toList()));
+        assertEquals(drill.getDescription(), matches.get(0).getDescription());
+        assertTrue(matches.get(0).getScore() > matches.get(1).getScore());
+    }
+
+    @Test
+    void shouldCloseRequestOnceAnswered() {
+        RequestMatcher matcher = new RequestMatcher(itemRepository, itemRequestRepository, 5, 5000);
+        matcher.onRequestSaved(bike);
+        Item answer = item(10L, 1L, "Bike", "Mountain bike");
+        answer.setRequestId(bike.getId());
+        matcher.onItemSaved(answer);
+
+        assertTrue(matcher.matchRequests(item(11L, 1L, "Bike", "Mountain bike")).isEmpty());
+    }
+
+    @Test
+    void shouldRankAvailableItemsForRequest() {
+        Item drillItem = item(10L, 1L, "Drill", "Cordless drill");
+        Item hammer = item(11L, 1L, "Hammer", "Heavy hammer");
+        Item hidden = item(12L, 1L, "Drill", "Another drill");
+        hidden.setAvailable(false);
+        Item requestorsDrill = item(13L, 2L, "Drill", "Cordless drill");
+        when(itemRepository.findByIdGreaterThanOrderById(eq(0L), any()))
+                .thenReturn(List.of(drillItem, hammer, hidden, requestorsDrill));
+        when(itemRepository.findAllById(anyIterable())).thenReturn(List.of(drillItem));
+        RequestMatcher matcher = new RequestMatcher(itemRepository, itemRequestRepository, 5, 5000);
+        matcher.rebuild();
+
+        assertEquals(List.of(drillItem), matcher.matchItems(drill, 10));
+    }
+
+    @Test
+    void shouldScoreNewestPostingsOfTermBeyondBudget() {
+        RequestMatcher matcher = new RequestMatcher(itemRepository, itemRequestRepository, 5, 1);
+        matcher.onRequestSaved(request(1L, 2L, "drill"));
+        matcher.onRequestSaved(request(2L, 2L, "drill"));
+        when(itemRequestRepository.findAllById(anyIterable())).thenReturn(List.of(request(2L, 2L, "drill")));
+
+        assertEquals(List.of(2L), matcher.matchRequests(item(10L, 1L, "Drill", "drill"))
+                                         .stream()
+                                         .map(RequestMatch::getRequestId)
+                                         .collect(Collectors.toList()));
+    }
+
+    @Test
+    void shouldKeepRareTermMatchesWhenCommonTermExceedsBudget() {
+        RequestMatcher matcher = new RequestMatcher(itemRepository, itemRequestRepository, 5, 3);
+        List<ItemRequest> requests = new ArrayList<>();
+        for (long id = 1; id <= 4; id++) {
+            requests.add(request(id, 2L, "drill"));
+        }
+        requests.add(request(5L, 2L, "drill and ladder"));
+        requests.forEach(matcher::onRequestSaved);
+        when(itemRequestRepository.findAllById(anyIterable())).thenReturn(requests);
+
+        assertEquals(List.of(5L, 4L), matcher.matchRequests(item(10L, 1L, "Drill", "ladder"))
+                                             .stream()
+                                             .map(RequestMatch::getRequestId)
+                                             .collect(Collectors.toList()));
+    }
+
+    private ItemRequest request(Long id, Long requestorId, String description) {
+        return ItemRequest.builder().id(id).requestorId(requestorId).description(description).build();
+    }
+
+    private Item item(Long id, Long owner, String name, String description) {
+        return Item.builder().id(id).name(name).description(description).available(true).owner(owner).build();
+    }
+}
@@ -0,0 +1,166 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@JdbcTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxRelayTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM outbox_pending");
+        jdbcTemplate.update("DELETE FROM outbox_events");
+    }
+
+    @Test
+    void shouldRelayInBatchesUntilSinkIsFull() throws InterruptedException {
+        QueueOutboxSink sink = new QueueOutboxSink(3);
+        OutboxService outbox = outbox(sink);
+        for (long id = 1; id <= 5; id++) {
+            append(outbox, id);
+        }
+        OutboxRelay relay = relay(List.of(sink), 2, 10);
+
+        assertEquals(3, relay.relay());
+        assertEquals(3, sink.size());
+        assertEquals(2, relay.pending("queue"));
+        OutboxEvent first = sink.poll(1, TimeUnit.SECONDS);
+        assertEquals("{\"bookingId\":1}", first.getPayload());
+
+        assertEquals(1, relay.relay());
+        assertEquals(1, relay.pending("queue"));
+        sink.poll(1, TimeUnit.SECONDS);
+        sink.poll(1, TimeUnit.SECONDS);
+        assertEquals(1, relay.relay());
+        assertEquals(0, relay.pending("queue"));
+        assertEquals(0, relay.relay());
+    }
+
+    @Test
+    void shouldTrackDeliveriesPerSinkAndSweepDeliveredEvents() {
+        QueueOutboxSink queue = new QueueOutboxSink(10);
+        OutboxSink stalled = new OutboxSink() {
+            @Override
+            public String name() {
+                return "stalled";
+            }
+
+            @Override
+            public int publish(List<OutboxEvent> events) {
+                return 1;
+            }
+        };
+        OutboxService outbox = outbox(queue, stalled);
+        append(outbox, 1L);
+        append(outbox, 2L);
+        OutboxRelay relay = relay(List.of(queue, stalled), 10, 1);
+
+        assertEquals(3, relay.relay());
+        assertEquals(0, relay.pending("queue"));
+        assertEquals(1, relay.pending("stalled"));
+        assertEquals(1, relay.sweep());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events", Integer.class));
+    }
+
+    @Test
+    void shouldRelayEventWhoseTransactionCommitsLate() throws Exception {
+        QueueOutboxSink sink = new QueueOutboxSink(10);
+        OutboxService outbox = outbox(sink);
+        OutboxRelay relay = relay(List.of(sink), 10, 10);
+        CountDownLatch appended = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> late = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                outbox.append(OutboxEvent.BOOKING, 1L, "created", Map.of("bookingId", 1));
+                appended.countDown();
+                try {
+                    commit.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(appended.await(10, TimeUnit.SECONDS));
+            append(outbox, 2L);
+
+            assertEquals(1, relay.relay());
+            OutboxEvent committedFirst = sink.poll(1, TimeUnit.SECONDS);
+            assertEquals(2L, committedFirst.getAggregateId());
+
+            commit.countDown();
+            late.get(10, TimeUnit.SECONDS);
+            assertEquals(1, relay.relay());
+            OutboxEvent committedLate = sink.poll(1, TimeUnit.SECONDS);
+            assertEquals(1L, committedLate.getAggregateId());
+            assertTrue(committedLate.getId() < committedFirst.getId());
+            assertEquals(0, relay.pending("queue"));
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldRelayMoreEventsThanQueueCapacity() throws InterruptedException {
+        QueueOutboxSink sink = new QueueOutboxSink(3);
+        OutboxService outbox = outbox(sink);
+        for (long id = 1; id <= 10; id++) {
+            append(outbox, id);
+        }
+        OutboxRelay relay = relay(List.of(sink), 4, 10);
+
+        List<Long> received = new ArrayList<>();
+        for (int run = 0; run < 10 && received.size() < 10; run++) {
+            relay.relay();
+            OutboxEvent event;
+            while ((event = sink.poll(0, TimeUnit.MILLISECONDS)) != null) {
+                received.add(event.getAggregateId());
+            }
+        }
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L), received);
+        assertEquals(0, relay.pending("queue"));
+        assertEquals(10, relay.sweep());
+    }
+
+    private OutboxService outbox(OutboxSink... sinks) {
+        return new OutboxService(jdbcTemplate, new ObjectMapper(), List.of(sinks));
+    }
+
+    private void append(OutboxService outbox, long bookingId) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> outbox.append(OutboxEvent.BOOKING, bookingId, "created", Map.of("bookingId", bookingId)));
+    }
+
+    private OutboxRelay relay(List<OutboxSink> sinks, int batchSize, int maxBatches) {
+        return new OutboxRelay(jdbcTemplate, new TransactionTemplate(transactionManager), sinks,
+                               new SimpleMeterRegistry(), batchSize, maxBatches, 0, false);
+    }
+}
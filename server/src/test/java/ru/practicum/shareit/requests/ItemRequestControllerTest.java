@@ -9,6 +9,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.ItemRequestController;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -24,6 +25,7 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -88,11 +90,39 @@ public class ItemRequestControllerTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON))
                         .andExpect(status().isOk())
+                        .andExpect(header().string(PageCursor.HEADER,
+                                                   new PageCursor(request.getCreated(), request.getId()).encode()))
                         .andExpect(jsonPath("$.[0].id", is(request.getId()), Long.class))
                         .andExpect(jsonPath("$.[0].description", is(request.getDescription())))
                         .andExpect(jsonPath("$.[0].requestorId", is(request.getRequestorId()), Long.class));
     }
 
+    @Test
+    void shouldReturnRequestsAfterCursor() throws Exception {
+        PageCursor cursor = new PageCursor(LocalDateTime.now(), 7L);
+        when(requestService.getAllRequestsAfter(cursor, 10, user.getId())).thenReturn(List.of(request));
+
+        mvc.perform(get("/requests/all")
+                        .param("cursor", cursor.encode())
+                        .param("size", "10")
+                        .header(header, user.getId()))
+                        .andExpect(status().isOk())
+                        .andExpect(header().doesNotExist(PageCursor.HEADER))
+                        .andExpect(jsonPath("$.[0].id", is(request.getId()), Long.class));
+    }
+
+    @Test
+    void shouldReturnCandidateItems() throws Exception {
+        when(requestService.getCandidates(user.getId(), request.getId(), 5)).thenReturn(List.of(item));
+
+        mvc.perform(get("/requests/" + request.getId() + "/candidates")
+                        .param("size", "5")
+                        .header(header, user.getId()))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.[0].id", is(item.getId()), Long.class))
+                        .andExpect(jsonPath("$.[0].requestCandidates").doesNotExist());
+    }
+
     @Test
     void shouldFindRequestById() throws Exception {
         when(requestService.getRequestById(anyLong(), anyLong())).thenReturn(request);
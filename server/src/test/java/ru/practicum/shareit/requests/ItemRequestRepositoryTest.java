@@ -11,6 +11,7 @@ import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -48,8 +49,36 @@ public class ItemRequestRepositoryTest {
         itemRequestRepository.save(request);
         item.setRequestId(request.getId());
         itemRepository.save(item);
-        List<ItemRequest> requests = itemRequestRepository.findAllByRequestorIdIsNot(user.getId(), PageRequest.of(0, 20));
+        List<ItemRequest> requests = itemRequestRepository.findAllByRequestorIdIsNotOrderByCreatedDescIdDesc(user.getId(),
+                                                                                                       PageRequest.of(0, 20));
         assertEquals(1, requests.size());
         assertEquals(request, requests.get(0));
     }
+
+    @Test
+    void shouldPageNewestRequestsFirstByKeyset() {
+        userRepository.save(user);
+        userRepository.save(user2);
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 12, 0);
+        ItemRequest oldest = itemRequestRepository.save(ItemRequest.builder().requestorId(user2.getId())
+                                                                   .description("oldest").created(created).build());
+        ItemRequest tied = itemRequestRepository.save(ItemRequest.builder().requestorId(user2.getId())
+                                                                 .description("tied").created(created.plusDays(1)).build());
+        ItemRequest tiedLater = itemRequestRepository.save(ItemRequest.builder().requestorId(user2.getId())
+                                                                      .description("tied later").created(created.plusDays(1))
+                                                                      .build());
+        ItemRequest newest = itemRequestRepository.save(ItemRequest.builder().requestorId(user2.getId())
+                                                                   .description("newest").created(created.plusDays(2)).build());
+        itemRequestRepository.save(ItemRequest.builder().requestorId(user.getId()).description("own")
+                                              .created(created.plusDays(3)).build());
+
+        List<ItemRequest> first = itemRequestRepository.findAllByRequestorIdIsNotOrderByCreatedDescIdDesc(user.getId(),
+                                                                                                          PageRequest.of(0, 2));
+        assertEquals(List.of(newest, tiedLater), first);
+
+        ItemRequest last = first.get(1);
+        List<ItemRequest> second = itemRequestRepository.findAllByRequestorIdIsNotAfter(user.getId(), last.getCreated(),
+                                                                                         last.getId(), PageRequest.of(0, 2));
+        assertEquals(List.of(tied, oldest), second);
+    }
 }
\ No newline at end of file
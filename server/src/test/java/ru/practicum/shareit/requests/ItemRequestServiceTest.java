@@ -18,10 +18,14 @@ import ru.practicum.shareit.user.repository.UserRepository;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest
@@ -56,20 +60,29 @@ public class ItemRequestServiceTest {
     void shouldReturnAllRequestsByRequestorId() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
         when(itemRequestRepository.findAllByRequestorId(anyLong())).thenReturn(List.of(request));
-        when(itemRepository.findAllByRequestId(anyLong())).thenReturn(List.of(item));
+        when(itemRepository.findAllByRequestIdInOrderById(List.of(1L))).thenReturn(List.of(withRequest(item, 1L)));
         List<ItemRequest> requests = service.getAllByUserId(2L);
         assertEquals(1, requests.size());
         assertEquals(request, requests.get(0));
+        assertEquals(1, requests.get(0).getItems().size());
+        verify(itemRepository, never()).findAllByRequestId(anyLong());
     }
 
     @Test
     void shouldReturnAllRequestsOfNotRequestor() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemRequestRepository.findAllByRequestorIdIsNot(user.getId(), PageRequest.of(0, 20))).thenReturn(List.of(request));
-        when(itemRepository.findAllByRequestId(anyLong())).thenReturn(List.of(item));
+        ItemRequest other = ItemRequest.builder().id(5L).requestorId(user2.getId()).description("other").build();
+        when(itemRequestRepository.findAllByRequestorIdIsNotOrderByCreatedDescIdDesc(user.getId(), PageRequest.of(0, 20)))
+                .thenReturn(List.of(other, request));
+        Item second = Item.builder().id(2L).name("second").description("second").owner(user.getId()).available(true).build();
+        when(itemRepository.findAllByRequestIdInOrderById(List.of(1L, 5L)))
+                .thenReturn(List.of(withRequest(item, 5L), withRequest(second, 1L)));
         List<ItemRequest> requests = service.getAllRequests(0, 20, user.getId());
-        assertEquals(1, requests.size());
-        assertEquals(request, requests.get(0));
+        assertEquals(2, requests.size());
+        assertEquals(other, requests.get(0));
+        assertEquals(List.of(1L), requests.get(0).getItems().stream().map(Item::getId).collect(Collectors.toList()));
+        assertEquals(List.of(2L), requests.get(1).getItems().stream().map(Item::getId).collect(Collectors.toList()));
+        verify(itemRepository, times(1)).findAllByRequestIdInOrderById(any());
     }
 
     @Test
@@ -96,4 +109,9 @@ public class ItemRequestServiceTest {
         ItemRequest result = service.addRequest(2L, ItemRequestDto.builder().description("test").userId(2L).build());
         assertEquals(result, request);
     }
-}
\ No newline at end of file
+
+    private Item withRequest(Item item, Long requestId) {
+        item.setRequestId(requestId);
+        return item;
+    }
+}
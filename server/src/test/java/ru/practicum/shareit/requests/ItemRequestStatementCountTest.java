@@ -0,0 +1,66 @@
+package ru.practicum.shareit.requests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.ResultMatcher;
+import ru.practicum.shareit.StatementCountTest;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+
+public class ItemRequestStatementCountTest extends StatementCountTest {
+    private static final int REQUESTS = 5;
+    private static final ResultMatcher[] REQUESTS_WITH_ITEMS = {jsonPath("$", hasSize(REQUESTS)),
+                                                                jsonPath("$[0].items", hasSize(2))};
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    private User requestor;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        requestor = userRepository.save(User.builder().name("requestor").email("requestor@count.test").build());
+        owner = userRepository.save(User.builder().name("owner").email("owner@count.test").build());
+        for (int i = 0; i < REQUESTS; i++) {
+            ItemRequest request = itemRequestRepository.save(ItemRequest.builder().description("need " + i)
+                                                                        .requestorId(requestor.getId()).build());
+            for (int j = 0; j < 2; j++) {
+                itemRepository.save(Item.builder().name("item " + i).description("item " + i).available(true)
+                                        .owner(owner.getId()).requestId(request.getId()).build());
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        itemRepository.deleteAll();
+        itemRequestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void ownRequestsShouldLoadItemsInOneStatement() throws Exception {
+        assertStatements(3, get("/requests").header(header, requestor.getId()), REQUESTS_WITH_ITEMS);
+    }
+
+    @Test
+    void requestPageShouldNotDependOnPageSize() throws Exception {
+        assertStatements(3, get("/requests/all").header(header, owner.getId())
+                                                .param("from", "0")
+                                                .param("size", "20"),
+                         REQUESTS_WITH_ITEMS);
+    }
+}